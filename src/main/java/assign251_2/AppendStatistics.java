@@ -0,0 +1,237 @@
+package assign251_2;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.spi.LoggingEvent;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.CompositeDataSupport;
+import javax.management.openmbean.CompositeType;
+import javax.management.openmbean.OpenDataException;
+import javax.management.openmbean.OpenType;
+import javax.management.openmbean.SimpleType;
+import javax.management.openmbean.TabularData;
+import javax.management.openmbean.TabularDataSupport;
+import javax.management.openmbean.TabularType;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Counts appended events in total, per level and per logger name, and keeps
+ * 1-, 5- and 15-minute exponentially weighted moving average rates.
+ * All counters are striped LongAdders, so recording never blocks.
+ */
+final class AppendStatistics {
+    static final String[] LEVEL_NAMES = {"TRACE", "DEBUG", "INFO", "WARN", "ERROR", "FATAL", "OTHER"};
+    // Loggers beyond this many distinct names are counted together
+    static final int MAX_LOGGERS = 1000;
+    static final String OTHER_LOGGERS = "(other)";
+
+    private static final long TICK_INTERVAL = TimeUnit.SECONDS.toNanos(5);
+
+    private final LongAdder total = new LongAdder();
+    private final LongAdder[] perLevel = new LongAdder[LEVEL_NAMES.length];
+    private final Map<String, LongAdder> perLogger = new ConcurrentHashMap<>();
+    private final Ewma oneMinute = new Ewma(1);
+    private final Ewma fiveMinute = new Ewma(5);
+    private final Ewma fifteenMinute = new Ewma(15);
+    private final LongSupplier nanoClock;
+    private final AtomicLong lastTick;
+
+    AppendStatistics() {
+        this(System::nanoTime);
+    }
+
+    // Clock injectable for tests
+    AppendStatistics(LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+        this.lastTick = new AtomicLong(nanoClock.getAsLong());
+        for (int i = 0; i < perLevel.length; i++) {
+            perLevel[i] = new LongAdder();
+        }
+    }
+
+    void record(LoggingEvent event) {
+        tickIfNecessary();
+        total.increment();
+        perLevel[levelIndex(event.getLevel())].increment();
+        oneMinute.uncounted.increment();
+        fiveMinute.uncounted.increment();
+        fifteenMinute.uncounted.increment();
+        loggerCounter(event.getLoggerName()).increment();
+    }
+
+    void reset() {
+        total.reset();
+        for (LongAdder adder : perLevel) {
+            adder.reset();
+        }
+        perLogger.clear();
+        oneMinute.reset();
+        fiveMinute.reset();
+        fifteenMinute.reset();
+        lastTick.set(nanoClock.getAsLong());
+    }
+
+    long getTotal() {
+        return total.sum();
+    }
+
+    long getLevelCount(Level level) {
+        return perLevel[levelIndex(level)].sum();
+    }
+
+    /** Events per second over roughly the last minute. */
+    double getOneMinuteRate() {
+        tickIfNecessary();
+        return oneMinute.ratePerSecond();
+    }
+
+    double getFiveMinuteRate() {
+        tickIfNecessary();
+        return fiveMinute.ratePerSecond();
+    }
+
+    double getFifteenMinuteRate() {
+        tickIfNecessary();
+        return fifteenMinute.ratePerSecond();
+    }
+
+    CompositeData levelCounts() {
+        try {
+            Object[] values = new Object[LEVEL_NAMES.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = perLevel[i].sum();
+            }
+            return new CompositeDataSupport(OpenTypes.LEVEL_COUNTS, LEVEL_NAMES, values);
+        } catch (OpenDataException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    TabularData loggerCounts() {
+        try {
+            TabularDataSupport table = new TabularDataSupport(OpenTypes.LOGGER_COUNTS);
+            for (Map.Entry<String, LongAdder> entry : perLogger.entrySet()) {
+                table.put(new CompositeDataSupport(OpenTypes.LOGGER_COUNT, OpenTypes.LOGGER_COUNT_ITEMS,
+                        new Object[]{entry.getKey(), entry.getValue().sum()}));
+            }
+            return table;
+        } catch (OpenDataException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static int levelIndex(Level level) {
+        switch (level == null ? -1 : level.toInt()) {
+            case Level.TRACE_INT:
+                return 0;
+            case Level.DEBUG_INT:
+                return 1;
+            case Level.INFO_INT:
+                return 2;
+            case Level.WARN_INT:
+                return 3;
+            case Level.ERROR_INT:
+                return 4;
+            case Level.FATAL_INT:
+                return 5;
+            default:
+                return 6;
+        }
+    }
+
+    private LongAdder loggerCounter(String loggerName) {
+        String key = loggerName == null ? OTHER_LOGGERS : loggerName;
+        LongAdder counter = perLogger.get(key);
+        if (counter == null) {
+            // The bound is approximate under races, which is fine for a diagnostic map
+            if (perLogger.size() >= MAX_LOGGERS) {
+                key = OTHER_LOGGERS;
+            }
+            counter = perLogger.computeIfAbsent(key, k -> new LongAdder());
+        }
+        return counter;
+    }
+
+    private void tickIfNecessary() {
+        long oldTick = lastTick.get();
+        long age = nanoClock.getAsLong() - oldTick;
+        if (age > TICK_INTERVAL) {
+            long newTick = oldTick + (age / TICK_INTERVAL) * TICK_INTERVAL;
+            // Only the thread that wins the CAS applies the missed ticks
+            if (lastTick.compareAndSet(oldTick, newTick)) {
+                long ticks = age / TICK_INTERVAL;
+                for (long i = 0; i < ticks; i++) {
+                    oneMinute.tick();
+                    fiveMinute.tick();
+                    fifteenMinute.tick();
+                }
+            }
+        }
+    }
+
+    /**
+     * Exponentially weighted moving average of a rate, updated every TICK_INTERVAL
+     * (the same scheme as Unix load averages).
+     */
+    private static final class Ewma {
+        final LongAdder uncounted = new LongAdder();
+        private final double alpha;
+        private volatile boolean initialized = false;
+        private volatile double ratePerNano = 0.0;
+
+        Ewma(int minutes) {
+            this.alpha = 1 - Math.exp(-(double) TICK_INTERVAL / TimeUnit.MINUTES.toNanos(minutes));
+        }
+
+        void tick() {
+            double instantRate = (double) uncounted.sumThenReset() / TICK_INTERVAL;
+            if (initialized) {
+                ratePerNano += alpha * (instantRate - ratePerNano);
+            } else {
+                ratePerNano = instantRate;
+                initialized = true;
+            }
+        }
+
+        double ratePerSecond() {
+            return ratePerNano * TimeUnit.SECONDS.toNanos(1);
+        }
+
+        void reset() {
+            uncounted.reset();
+            ratePerNano = 0.0;
+            initialized = false;
+        }
+    }
+
+    /**
+     * Open types for the JMX attributes.
+     */
+    private static final class OpenTypes {
+        static final CompositeType LEVEL_COUNTS;
+        static final String[] LOGGER_COUNT_ITEMS = {"logger", "count"};
+        static final CompositeType LOGGER_COUNT;
+        static final TabularType LOGGER_COUNTS;
+
+        static {
+            try {
+                OpenType<?>[] longs = new OpenType<?>[LEVEL_NAMES.length];
+                Arrays.fill(longs, SimpleType.LONG);
+                LEVEL_COUNTS = new CompositeType("LevelCounts", "Appended events per level",
+                        LEVEL_NAMES, LEVEL_NAMES, longs);
+                LOGGER_COUNT = new CompositeType("LoggerCount", "Appended events for one logger",
+                        LOGGER_COUNT_ITEMS, new String[]{"Logger name", "Appended events"},
+                        new OpenType<?>[]{SimpleType.STRING, SimpleType.LONG});
+                LOGGER_COUNTS = new TabularType("LoggerCounts", "Appended events per logger",
+                        LOGGER_COUNT, new String[]{"logger"});
+            } catch (OpenDataException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+    }
+}
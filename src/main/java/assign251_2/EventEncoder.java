@@ -0,0 +1,109 @@
+package assign251_2;
+
+import org.apache.log4j.Layout;
+import org.apache.log4j.spi.LoggingEvent;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Renders events through a layout into reusable character and byte buffers.
+ * StreamingLayouts write straight into the character buffer; other layouts go
+ * through format(). One instance serves a single thread at a time.
+ */
+final class EventEncoder {
+    private final CharsetEncoder encoder;
+    private final boolean utf8;
+    private final StringBuilder text = new StringBuilder(256);
+    private char[] chars = new char[256];
+    private CharBuffer charBuffer = CharBuffer.wrap(chars);
+    private ByteBuffer bytes = ByteBuffer.allocate(1024);
+
+    EventEncoder(Charset charset) {
+        this.encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.utf8 = StandardCharsets.UTF_8.equals(charset);
+    }
+
+    /**
+     * Renders the event into the reusable text buffer. The result is only valid
+     * until the next call on this encoder.
+     */
+    CharSequence render(Layout layout, LoggingEvent event) {
+        text.setLength(0);
+        if (layout instanceof StreamingLayout) {
+            ((StreamingLayout) layout).format(event, text);
+        } else {
+            text.append(layout.format(event));
+        }
+        return text;
+    }
+
+    /**
+     * Renders and encodes the event. The returned buffer is ready for reading and
+     * is only valid until the next call on this encoder.
+     */
+    ByteBuffer encode(Layout layout, LoggingEvent event) {
+        render(layout, event);
+        int length = text.length();
+        if (chars.length < length) {
+            chars = new char[Math.max(length, chars.length * 2)];
+            charBuffer = CharBuffer.wrap(chars);
+        }
+        text.getChars(0, length, chars, 0);
+        charBuffer.clear();
+        charBuffer.limit(length);
+
+        encoder.reset();
+        bytes.clear();
+        while (encoder.encode(charBuffer, bytes, true).isOverflow()) {
+            growBytes();
+        }
+        while (encoder.flush(bytes).isOverflow()) {
+            growBytes();
+        }
+        bytes.flip();
+        return bytes;
+    }
+
+    /**
+     * Number of bytes the event occupies once encoded, without keeping the bytes.
+     */
+    long encodedLength(Layout layout, LoggingEvent event) {
+        if (utf8) {
+            return utf8Length(render(layout, event));
+        }
+        return encode(layout, event).remaining();
+    }
+
+    private void growBytes() {
+        ByteBuffer grown = ByteBuffer.allocate(bytes.capacity() * 2);
+        bytes.flip();
+        grown.put(bytes);
+        bytes = grown;
+    }
+
+    static long utf8Length(CharSequence s) {
+        long length = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length++; // unpaired surrogate is replaced by '?'
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+}
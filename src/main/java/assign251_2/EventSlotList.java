@@ -0,0 +1,185 @@
+package assign251_2;
+
+import org.apache.log4j.Category;
+import org.apache.log4j.Level;
+import org.apache.log4j.spi.LoggingEvent;
+import org.apache.log4j.spi.ThrowableInformation;
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * Garbage-free event storage for MemAppender, injected via MemAppender.getInstance(List).
+ *
+ * Events are not retained: add() copies their fields into pre-allocated mutable slots
+ * arranged as a ring, and the message characters into a per-slot StringBuilder.
+ * Once every slot has held a message of the typical length, appending and evicting
+ * allocate nothing, so the incoming LoggingEvent dies young instead of being promoted.
+ *
+ * get() materializes a new LoggingEvent on every call, so callers receive equal but
+ * not identical events. NDC, MDC and location information are not kept.
+ */
+public class EventSlotList extends AbstractList<LoggingEvent> implements RandomAccess {
+    private static final int INITIAL_MESSAGE_CAPACITY = 128;
+
+    private Slot[] slots;
+    private int head = 0;
+    private int size = 0;
+
+    public EventSlotList(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        slots = new Slot[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Slot();
+        }
+    }
+
+    @Override
+    public boolean add(LoggingEvent event) {
+        if (size == slots.length) {
+            grow();
+        }
+        slots[physical(size)].copyFrom(event);
+        size++;
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public LoggingEvent get(int index) {
+        checkIndex(index);
+        return slots[physical(index)].toEvent();
+    }
+
+    /**
+     * Removes the element at the given index. Removing index 0 is O(1);
+     * prefer removeFirst(int), which does not materialize the removed event.
+     */
+    @Override
+    public LoggingEvent remove(int index) {
+        LoggingEvent removed = get(index);
+        removeRange(index, index + 1);
+        return removed;
+    }
+
+    /**
+     * Drops the oldest count events without materializing them.
+     */
+    public void removeFirst(int count) {
+        if (count < 0 || count > size) {
+            throw new IndexOutOfBoundsException("count: " + count + ", size: " + size);
+        }
+        for (int i = 0; i < count; i++) {
+            slots[physical(i)].release();
+        }
+        head = physical(count);
+        size -= count;
+        modCount++;
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        if (fromIndex == 0) {
+            removeFirst(toIndex);
+            return;
+        }
+        // Shift the tail down over the removed range, swapping slots so none are lost
+        int removed = toIndex - fromIndex;
+        for (int i = fromIndex; i + removed < size; i++) {
+            int a = physical(i);
+            int b = physical(i + removed);
+            Slot tmp = slots[a];
+            slots[a] = slots[b];
+            slots[b] = tmp;
+        }
+        for (int i = size - removed; i < size; i++) {
+            slots[physical(i)].release();
+        }
+        size -= removed;
+        modCount++;
+    }
+
+    @Override
+    public void clear() {
+        removeFirst(size);
+        head = 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Number of pre-allocated slots.
+     */
+    public int capacity() {
+        return slots.length;
+    }
+
+    private int physical(int index) {
+        int i = head + index;
+        return i < slots.length ? i : i - slots.length;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    private void grow() {
+        Slot[] grown = new Slot[slots.length * 2];
+        for (int i = 0; i < size; i++) {
+            grown[i] = slots[physical(i)];
+        }
+        for (int i = size; i < grown.length; i++) {
+            grown[i] = new Slot();
+        }
+        slots = grown;
+        head = 0;
+    }
+
+    /**
+     * Mutable copy of one LoggingEvent.
+     */
+    private static final class Slot {
+        private final StringBuilder message = new StringBuilder(INITIAL_MESSAGE_CAPACITY);
+        private boolean hasMessage;
+        private String fqnOfCategoryClass;
+        private Category logger;
+        private long timeStamp;
+        private Level level;
+        private String threadName;
+        private String[] throwableStrRep;
+
+        void copyFrom(LoggingEvent event) {
+            fqnOfCategoryClass = event.getFQNOfLoggerClass();
+            logger = event.getLogger();
+            timeStamp = event.getTimeStamp();
+            level = event.getLevel();
+            threadName = event.getThreadName();
+            String rendered = event.getRenderedMessage();
+            message.setLength(0);
+            hasMessage = rendered != null;
+            if (hasMessage) {
+                message.append(rendered);
+            }
+            // Shared with every other event that carries an identical stack trace
+            throwableStrRep = ThrowableRenderer.lines(event);
+        }
+
+        LoggingEvent toEvent() {
+            ThrowableInformation throwableInfo = throwableStrRep == null ? null : new ThrowableInformation(throwableStrRep);
+            return new LoggingEvent(fqnOfCategoryClass, logger, timeStamp, level,
+                    hasMessage ? message.toString() : null, threadName, throwableInfo, null, null, null);
+        }
+
+        void release() {
+            // Keep the StringBuilder for reuse, drop references that could pin other objects
+            logger = null;
+            throwableStrRep = null;
+        }
+    }
+}
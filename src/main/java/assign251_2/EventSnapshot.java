@@ -0,0 +1,335 @@
+package assign251_2;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.spi.LoggingEvent;
+import org.apache.log4j.spi.ThrowableInformation;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary snapshot format for cached LoggingEvents.
+ *
+ * File layout (every integer is an unsigned LEB128 varint unless noted):
+ * <pre>
+ *   magic            4 bytes, "MAS2"
+ *   event count
+ *   string count
+ *   strings          [length + 1, UTF-8 bytes] (length + 1 == 0 means null)
+ *   events           level, level name string index, logger string index, thread string index,
+ *                    zig-zag timestamp delta to the previous event,
+ *                    message [length + 1, UTF-8 bytes],
+ *                    throwable line count, throwable line string indexes
+ * </pre>
+ * Logger names, thread names and stack-trace lines go through the string table,
+ * so each distinct value is stored only once. The level name is stored next to its
+ * value so custom levels survive a round trip.
+ */
+public final class EventSnapshot {
+    private static final int MAGIC = 0x4D415332; // "MAS2"
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final int GATHER_CHUNKS = 16;
+    private static final String FQCN = EventSnapshot.class.getName();
+
+    private EventSnapshot() {
+    }
+
+    /**
+     * Writes the events to the file, replacing any existing content.
+     * @return the number of events written
+     */
+    public static int write(LoggingEvent[] events, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            return write(events, channel);
+        }
+    }
+
+    /**
+     * Writes the events at the channel's current position using gather writes.
+     * @return the number of events written
+     */
+    public static int write(LoggingEvent[] events, FileChannel channel) throws IOException {
+        // First pass: build the string table
+        Map<String, Integer> ids = new HashMap<>();
+        List<String> table = new ArrayList<>();
+        for (LoggingEvent event : events) {
+            intern(event.getLevel().toString(), ids, table);
+            intern(event.getLoggerName(), ids, table);
+            intern(event.getThreadName(), ids, table);
+            String[] throwableLines = ThrowableRenderer.lines(event);
+            if (throwableLines != null) {
+                for (String line : throwableLines) {
+                    intern(line, ids, table);
+                }
+            }
+        }
+
+        ChunkWriter out = new ChunkWriter(channel);
+        out.putInt(MAGIC);
+        out.putVarint(events.length);
+        out.putVarint(table.size());
+        for (String s : table) {
+            out.putString(s);
+        }
+
+        long previousTimestamp = 0;
+        for (LoggingEvent event : events) {
+            out.putVarint(event.getLevel().toInt());
+            out.putVarint(ids.get(event.getLevel().toString()));
+            out.putVarint(ids.get(event.getLoggerName()));
+            out.putVarint(ids.get(event.getThreadName()));
+            long delta = event.getTimeStamp() - previousTimestamp;
+            out.putVarint((delta << 1) ^ (delta >> 63)); // zig-zag, timestamps are not always monotonic
+            previousTimestamp = event.getTimeStamp();
+            out.putString(event.getRenderedMessage());
+            String[] throwableLines = ThrowableRenderer.lines(event);
+            if (throwableLines == null) {
+                out.putVarint(0);
+            } else {
+                out.putVarint(throwableLines.length);
+                for (String line : throwableLines) {
+                    out.putVarint(ids.get(line));
+                }
+            }
+        }
+        out.flush();
+        return events.length;
+    }
+
+    /**
+     * Reads all events from a snapshot file.
+     */
+    public static List<LoggingEvent> read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return read(channel);
+        }
+    }
+
+    /**
+     * Reads all events from the channel's current position.
+     */
+    public static List<LoggingEvent> read(FileChannel channel) throws IOException {
+        ChunkReader in = new ChunkReader(channel);
+        if (in.getInt() != MAGIC) {
+            throw new IOException("Not a MemAppender snapshot");
+        }
+        int eventCount = (int) in.getVarint();
+        String[] table = new String[(int) in.getVarint()];
+        for (int i = 0; i < table.length; i++) {
+            table[i] = in.getString();
+        }
+
+        // Loggers and levels are looked up once per distinct name
+        Logger[] loggers = new Logger[table.length];
+        Level[] levels = new Level[table.length];
+        List<LoggingEvent> events = new ArrayList<>(eventCount);
+        long timestamp = 0;
+        for (int i = 0; i < eventCount; i++) {
+            int levelValue = (int) in.getVarint();
+            int levelId = (int) in.getVarint();
+            Level level = levels[levelId];
+            if (level == null || level.toInt() != levelValue) {
+                level = toLevel(levelValue, table[levelId]);
+                levels[levelId] = level;
+            }
+            int loggerId = (int) in.getVarint();
+            String threadName = table[(int) in.getVarint()];
+            long zigzag = in.getVarint();
+            timestamp += (zigzag >>> 1) ^ -(zigzag & 1);
+            String message = in.getString();
+            int lineCount = (int) in.getVarint();
+            ThrowableInformation throwableInfo = null;
+            if (lineCount > 0) {
+                String[] lines = new String[lineCount];
+                for (int j = 0; j < lineCount; j++) {
+                    lines[j] = table[(int) in.getVarint()];
+                }
+                throwableInfo = new ThrowableInformation(lines);
+            }
+            if (loggers[loggerId] == null && table[loggerId] != null) {
+                loggers[loggerId] = Logger.getLogger(table[loggerId]);
+            }
+            events.add(new LoggingEvent(FQCN, loggers[loggerId], timestamp, level, message,
+                    threadName, throwableInfo, null, null, null));
+        }
+        return events;
+    }
+
+    /**
+     * The standard level with this value and name, or a RestoredLevel for a custom one.
+     */
+    private static Level toLevel(int value, String name) {
+        Level standard = Level.toLevel(name, null);
+        if (standard != null && standard.toInt() == value) {
+            return standard;
+        }
+        return new RestoredLevel(value, name);
+    }
+
+    private static void intern(String s, Map<String, Integer> ids, List<String> table) {
+        if (!ids.containsKey(s)) {
+            ids.put(s, table.size());
+            table.add(s);
+        }
+    }
+
+    /**
+     * A custom level read back from a snapshot. Levels compare by value, so it
+     * equals the original level and prints under the original name.
+     */
+    private static final class RestoredLevel extends Level {
+        private static final long serialVersionUID = 1L;
+
+        RestoredLevel(int level, String name) {
+            super(level, name, 7);
+        }
+    }
+
+    /**
+     * Fills a fixed set of chunk buffers and hands them to the channel in one
+     * gather write when they are all full.
+     */
+    private static final class ChunkWriter {
+        private final FileChannel channel;
+        private final ByteBuffer[] chunks = new ByteBuffer[GATHER_CHUNKS];
+        private int current = 0;
+
+        ChunkWriter(FileChannel channel) {
+            this.channel = channel;
+            for (int i = 0; i < chunks.length; i++) {
+                chunks[i] = ByteBuffer.allocate(CHUNK_SIZE);
+            }
+        }
+
+        void putInt(int value) throws IOException {
+            for (int shift = 24; shift >= 0; shift -= 8) {
+                put((byte) (value >>> shift));
+            }
+        }
+
+        void putVarint(long value) throws IOException {
+            while ((value & ~0x7FL) != 0) {
+                put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            put((byte) value);
+        }
+
+        void putString(String s) throws IOException {
+            if (s == null) {
+                putVarint(0);
+                return;
+            }
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            putVarint(bytes.length + 1L);
+            int offset = 0;
+            while (offset < bytes.length) {
+                ByteBuffer buf = writable();
+                int n = Math.min(buf.remaining(), bytes.length - offset);
+                buf.put(bytes, offset, n);
+                offset += n;
+            }
+        }
+
+        private void put(byte b) throws IOException {
+            writable().put(b);
+        }
+
+        private ByteBuffer writable() throws IOException {
+            if (chunks[current].hasRemaining()) {
+                return chunks[current];
+            }
+            if (current + 1 < chunks.length) {
+                return chunks[++current];
+            }
+            flush();
+            return chunks[0];
+        }
+
+        void flush() throws IOException {
+            for (int i = 0; i <= current; i++) {
+                chunks[i].flip();
+            }
+            while (chunks[current].hasRemaining()) {
+                channel.write(chunks, 0, current + 1);
+            }
+            for (int i = 0; i <= current; i++) {
+                chunks[i].clear();
+            }
+            current = 0;
+        }
+    }
+
+    /**
+     * Reads the channel through a single refillable buffer.
+     */
+    private static final class ChunkReader {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(CHUNK_SIZE);
+        private byte[] scratch = new byte[256];
+
+        ChunkReader(FileChannel channel) {
+            this.channel = channel;
+            buffer.flip(); // start empty
+        }
+
+        int getInt() throws IOException {
+            ensure(4);
+            return buffer.getInt();
+        }
+
+        long getVarint() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                ensure(1);
+                byte b = buffer.get();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed varint in snapshot");
+        }
+
+        String getString() throws IOException {
+            int length = (int) getVarint() - 1;
+            if (length < 0) {
+                return null;
+            }
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            int offset = 0;
+            while (offset < length) {
+                ensure(1);
+                int n = Math.min(buffer.remaining(), length - offset);
+                buffer.get(scratch, offset, n);
+                offset += n;
+            }
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        private void ensure(int n) throws IOException {
+            if (buffer.remaining() >= n) {
+                return;
+            }
+            buffer.compact();
+            while (buffer.position() < n) {
+                if (channel.read(buffer) < 0) {
+                    throw new EOFException("Truncated snapshot");
+                }
+            }
+            buffer.flip();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package assign251_2;
+
+import org.apache.log4j.Layout;
+import org.apache.log4j.spi.LoggingEvent;
+
+/**
+ * Formats each event as one line of JSON with the fields VelocityLayout offers:
+ * <pre>
+ *   {"c":"logger","d":1700000000000,"m":"message","p":"INFO","t":"thread"}
+ * </pre>
+ * d is the timestamp in epoch milliseconds. Events with a throwable also get an
+ * "e" field holding the stack trace, so appenders do not print it separately.
+ *
+ * Strings are escaped while they are copied into the output buffer; format() uses a
+ * reusable buffer per thread, so no intermediate maps or strings are created.
+ */
+public class JsonLayout extends Layout implements ThreadSafeLayout, StreamingLayout {
+    // Buffers that grew past this are not kept, so one huge event does not pin memory
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(512));
+
+    @Override
+    public String format(LoggingEvent event) {
+        StringBuilder out = BUFFER.get();
+        out.setLength(0);
+        format(event, out);
+        String formatted = out.toString();
+        if (out.capacity() > MAX_RETAINED_BUFFER) {
+            BUFFER.remove();
+        }
+        return formatted;
+    }
+
+    /**
+     * Renders the event straight into the caller's buffer.
+     */
+    @Override
+    public void format(LoggingEvent event, StringBuilder out) {
+        out.append("{\"c\":");
+        appendString(event.getLoggerName(), out);
+        out.append(",\"d\":").append(event.getTimeStamp());
+        out.append(",\"m\":");
+        appendString(event.getRenderedMessage(), out);
+        out.append(",\"p\":");
+        appendString(event.getLevel() == null ? null : event.getLevel().toString(), out);
+        out.append(",\"t\":");
+        appendString(event.getThreadName(), out);
+        String[] throwableLines = ThrowableRenderer.lines(event);
+        if (throwableLines != null) {
+            out.append(",\"e\":\"");
+            for (int i = 0; i < throwableLines.length; i++) {
+                if (i > 0) {
+                    out.append("\\n");
+                }
+                appendEscaped(throwableLines[i], out);
+            }
+            out.append('"');
+        }
+        out.append('}').append(LINE_SEP);
+    }
+
+    @Override
+    public String getContentType() {
+        return "application/json";
+    }
+
+    /**
+     * The stack trace is part of the JSON object.
+     */
+    @Override
+    public boolean ignoresThrowable() {
+        return false;
+    }
+
+    @Override
+    public void activateOptions() {}
+
+    private static void appendString(String s, StringBuilder out) {
+        if (s == null) {
+            out.append("null");
+            return;
+        }
+        out.append('"');
+        appendEscaped(s, out);
+        out.append('"');
+    }
+
+    /**
+     * Copies s into out with JSON escaping. Runs of characters that need no escaping
+     * are appended in one call.
+     */
+    private static void appendEscaped(String s, StringBuilder out) {
+        int start = 0;
+        int length = s.length();
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\' && !Character.isSurrogate(c) && c != '\u2028' && c != '\u2029') {
+                continue;
+            }
+            if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(s.charAt(i + 1))) {
+                i++; // a valid pair is copied as is
+                continue;
+            }
+            out.append(s, start, i);
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                case '\b':
+                    out.append("\\b");
+                    break;
+                case '\f':
+                    out.append("\\f");
+                    break;
+                default:
+                    // Other control characters, unpaired surrogates and JavaScript line separators
+                    out.append("\\u").append(HEX[c >> 12 & 0xF]).append(HEX[c >> 8 & 0xF])
+                            .append(HEX[c >> 4 & 0xF]).append(HEX[c & 0xF]);
+            }
+            start = i + 1;
+        }
+        out.append(s, start, length);
+    }
+}
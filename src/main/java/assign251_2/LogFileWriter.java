@@ -0,0 +1,181 @@
+package assign251_2;
+
+import org.apache.log4j.Layout;
+import org.apache.log4j.PatternLayout;
+import org.apache.log4j.spi.LoggingEvent;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends formatted events to a file in batches. Each event is encoded into a reusable
+ * byte buffer and copied into a fixed set of chunk buffers, which reach the channel in
+ * one gather write when they are full or the batch ends. Meant for a background thread;
+ * one instance serves a single thread at a time.
+ *
+ * With a maximum file size, the file is rotated like RollingFileAppender does
+ * (file -> file.1 -> ... -> file.maxBackups) before a write would exceed it.
+ * Events are never split across files.
+ */
+final class LogFileWriter implements Closeable {
+    static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+    private static final int GATHER_CHUNKS = 16;
+    // Used when the appender has no layout
+    private static final Layout MESSAGE_ONLY = new PatternLayout("%m%n");
+
+    private final Path file;
+    private final long maxFileSize;
+    private final int maxBackups;
+    private final EventEncoder encoder = new EventEncoder(Charset.defaultCharset());
+    private final ByteBuffer[] chunks = new ByteBuffer[GATHER_CHUNKS];
+    private final int capacity;
+    private int current = 0;
+    private int buffered = 0;
+    private FileChannel channel;
+    private long fileSize;
+
+    LogFileWriter(Path file, int bufferSize) {
+        this(file, bufferSize, 0, 0);
+    }
+
+    /**
+     * @param bufferSize total size of the chunk buffers, i.e. the largest single write
+     * @param maxFileSize bytes after which the file is rotated, 0 for no rotation
+     * @param maxBackups rotated files to keep; older ones are deleted
+     */
+    LogFileWriter(Path file, int bufferSize, long maxFileSize, int maxBackups) {
+        if (bufferSize < GATHER_CHUNKS || maxFileSize < 0 || maxBackups < 0) {
+            throw new IllegalArgumentException("Invalid buffer size, maxFileSize or maxBackups");
+        }
+        this.file = file;
+        this.maxFileSize = maxFileSize;
+        this.maxBackups = maxBackups;
+        // A full set of chunks must fit into one file
+        long total = maxFileSize > 0 ? Math.min(bufferSize, Math.max(maxFileSize, GATHER_CHUNKS)) : bufferSize;
+        int chunkSize = (int) (total / GATHER_CHUNKS);
+        for (int i = 0; i < chunks.length; i++) {
+            chunks[i] = ByteBuffer.allocateDirect(chunkSize);
+        }
+        this.capacity = chunkSize * GATHER_CHUNKS;
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    /**
+     * Formats the events with the layout and appends them to the file.
+     */
+    void write(LoggingEvent[] events, Layout layout) throws IOException {
+        Layout currentLayout = layout == null ? MESSAGE_ONLY : layout;
+        synchronized (currentLayout) {
+            for (LoggingEvent event : events) {
+                ByteBuffer bytes = encoder.encode(currentLayout, event);
+                if (bytes.remaining() > capacity - buffered) {
+                    flushChunks();
+                }
+                if (bytes.remaining() > capacity) {
+                    writeFully(new ByteBuffer[]{bytes}, 1); // larger than all chunks together
+                } else {
+                    buffer(bytes);
+                }
+            }
+        }
+        flushChunks();
+    }
+
+    /**
+     * Forces the written bytes to the storage device (file content only).
+     */
+    void force() throws IOException {
+        if (channel != null) {
+            channel.force(false);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private void buffer(ByteBuffer bytes) {
+        buffered += bytes.remaining();
+        while (bytes.hasRemaining()) {
+            ByteBuffer chunk = chunks[current];
+            if (!chunk.hasRemaining()) {
+                chunk = chunks[++current];
+            }
+            int n = Math.min(chunk.remaining(), bytes.remaining());
+            int limit = bytes.limit();
+            bytes.limit(bytes.position() + n);
+            chunk.put(bytes);
+            bytes.limit(limit);
+        }
+    }
+
+    private void flushChunks() throws IOException {
+        for (int i = 0; i <= current; i++) {
+            chunks[i].flip();
+        }
+        writeFully(chunks, current + 1);
+        for (int i = 0; i <= current; i++) {
+            chunks[i].clear();
+        }
+        current = 0;
+        buffered = 0;
+    }
+
+    private void writeFully(ByteBuffer[] buffers, int count) throws IOException {
+        long length = 0;
+        for (int i = 0; i < count; i++) {
+            length += buffers[i].remaining();
+        }
+        if (length == 0) {
+            return;
+        }
+        open();
+        if (maxFileSize > 0 && fileSize > 0 && fileSize + length > maxFileSize) {
+            rotate();
+            open();
+        }
+        while (buffers[count - 1].hasRemaining()) {
+            fileSize += channel.write(buffers, 0, count);
+        }
+    }
+
+    private void open() throws IOException {
+        if (channel == null) {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            fileSize = channel.size();
+        }
+    }
+
+    private void rotate() throws IOException {
+        close();
+        if (maxBackups == 0) {
+            Files.delete(file);
+            return;
+        }
+        Files.deleteIfExists(backup(maxBackups));
+        for (int i = maxBackups - 1; i >= 1; i--) {
+            if (Files.exists(backup(i))) {
+                Files.move(backup(i), backup(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(file, backup(1), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private Path backup(int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+}
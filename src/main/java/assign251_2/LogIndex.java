@@ -0,0 +1,184 @@
+package assign251_2;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Inverted index over the messages in MemAppender's window, maintained as events
+ * are appended and evicted. Not thread-safe: MemAppender calls it under its lock.
+ *
+ * A token is a maximal run of letters, digits, '_' and '-', compared case-insensitively,
+ * so request ids such as "req-42" and error codes such as "ORA-00942" are single tokens.
+ * Every indexed event gets a sequence number; each token maps to the ascending
+ * sequence numbers of the events containing it. Events only ever leave the window
+ * from the front, so pruning pops the head of each affected postings list.
+ */
+final class LogIndex {
+    private static final String[] NO_TOKENS = new String[0];
+
+    private final Map<String, Postings> postings = new HashMap<>();
+    // Tokens of every indexed event, oldest first, so eviction needs no re-tokenizing
+    private final ArrayDeque<String[]> eventTokens = new ArrayDeque<>();
+    private long firstSequence = 0;
+
+    /** Indexes the next event in the window. */
+    void add(String message) {
+        add(tokenize(message));
+    }
+
+    /**
+     * Indexes the next event in the window from its already tokenized message,
+     * so callers can tokenize before taking their lock.
+     */
+    void add(String[] tokens) {
+        long sequence = firstSequence + eventTokens.size();
+        for (String token : tokens) {
+            postings.computeIfAbsent(token, t -> new Postings()).add(sequence);
+        }
+        eventTokens.addLast(tokens);
+    }
+
+    /** Forgets the oldest count events. */
+    void removeOldest(int count) {
+        for (int i = 0; i < count; i++) {
+            for (String token : eventTokens.removeFirst()) {
+                Postings list = postings.get(token);
+                list.removeFirst();
+                if (list.size == 0) {
+                    postings.remove(token);
+                }
+            }
+            firstSequence++;
+        }
+    }
+
+    void clear() {
+        postings.clear();
+        eventTokens.clear();
+        firstSequence = 0;
+    }
+
+    int size() {
+        return eventTokens.size();
+    }
+
+    /**
+     * Window positions (0 = oldest) of the events containing every term, ascending.
+     * Walks the shortest postings list and binary-searches the others, so the cost
+     * depends on the number of candidate hits, not on the window size.
+     */
+    int[] positions(String[] terms) {
+        if (terms.length == 0) {
+            return new int[0];
+        }
+        Postings[] lists = new Postings[terms.length];
+        for (int i = 0; i < terms.length; i++) {
+            lists[i] = postings.get(terms[i]);
+            if (lists[i] == null) {
+                return new int[0];
+            }
+        }
+        Arrays.sort(lists, Comparator.comparingInt(list -> list.size));
+        Postings shortest = lists[0];
+        int[] hits = new int[shortest.size];
+        int count = 0;
+        for (int i = 0; i < shortest.size; i++) {
+            long sequence = shortest.get(i);
+            boolean inAll = true;
+            for (int j = 1; j < lists.length && inAll; j++) {
+                inAll = lists[j].contains(sequence);
+            }
+            if (inAll) {
+                hits[count++] = (int) (sequence - firstSequence);
+            }
+        }
+        return Arrays.copyOf(hits, count);
+    }
+
+    /**
+     * Distinct lower-case tokens of the text, in order of first occurrence.
+     */
+    static String[] tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return NO_TOKENS;
+        }
+        Set<String> tokens = new LinkedHashSet<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean tokenChar = i < text.length() && isTokenChar(text.charAt(i));
+            if (tokenChar && start < 0) {
+                start = i;
+            } else if (!tokenChar && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens.toArray(NO_TOKENS);
+    }
+
+    /**
+     * True if the text contains every term; used when the index is disabled.
+     */
+    static boolean matches(String text, String[] terms) {
+        return new HashSet<>(Arrays.asList(tokenize(text))).containsAll(Arrays.asList(terms));
+    }
+
+    private static boolean isTokenChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '-';
+    }
+
+    /**
+     * Ascending sequence numbers in a growable ring of primitives.
+     */
+    private static final class Postings {
+        private long[] sequences = new long[4];
+        private int head = 0;
+        private int size = 0;
+
+        void add(long sequence) {
+            if (size == sequences.length) {
+                long[] grown = new long[sequences.length * 2];
+                for (int i = 0; i < size; i++) {
+                    grown[i] = get(i);
+                }
+                sequences = grown;
+                head = 0;
+            }
+            sequences[(head + size) & (sequences.length - 1)] = sequence;
+            size++;
+        }
+
+        long get(int index) {
+            return sequences[(head + index) & (sequences.length - 1)];
+        }
+
+        void removeFirst() {
+            head = (head + 1) & (sequences.length - 1);
+            size--;
+        }
+
+        boolean contains(long sequence) {
+            int low = 0;
+            int high = size - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                long value = get(mid);
+                if (value < sequence) {
+                    low = mid + 1;
+                } else if (value > sequence) {
+                    high = mid - 1;
+                } else {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
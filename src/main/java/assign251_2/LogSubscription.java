@@ -0,0 +1,84 @@
+package assign251_2;
+
+import org.apache.log4j.spi.LoggingEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A live tail of a MemAppender: receives every event appended after it was created.
+ * Events wait in a bounded, lock-free queue until the subscriber polls them in batches.
+ * When the queue is full, new events are dropped for this subscriber only and counted,
+ * so a slow subscriber never blocks append().
+ */
+public class LogSubscription implements AutoCloseable {
+    private final MemAppender owner;
+    private final int capacity;
+    private final ConcurrentLinkedQueue<LoggingEvent> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    LogSubscription(MemAppender owner, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.owner = owner;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Called by the appender for each new event. Never blocks.
+     * @return false if the queue was full and the event was dropped
+     */
+    boolean offer(LoggingEvent event) {
+        if (size.incrementAndGet() > capacity) {
+            size.decrementAndGet();
+            droppedCount.incrementAndGet();
+            return false;
+        }
+        queue.offer(event);
+        return true;
+    }
+
+    /**
+     * Removes and returns up to maxEvents pending events, oldest first.
+     * Returns an empty list if nothing is pending.
+     */
+    public List<LoggingEvent> poll(int maxEvents) {
+        List<LoggingEvent> batch = new ArrayList<>(Math.min(maxEvents, size.get()));
+        LoggingEvent event;
+        while (batch.size() < maxEvents && (event = queue.poll()) != null) {
+            size.decrementAndGet();
+            batch.add(event);
+        }
+        return batch;
+    }
+
+    /**
+     * Number of events waiting to be polled.
+     */
+    public int getPendingCount() {
+        return size.get();
+    }
+
+    /**
+     * Number of events this subscriber missed because its queue was full.
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Stops delivery to this subscription. Pending events can still be polled.
+     */
+    @Override
+    public void close() {
+        owner.unsubscribe(this);
+    }
+}
@@ -1,30 +1,103 @@
 package assign251_2;
 
 import org.apache.log4j.AppenderSkeleton;
+import org.apache.log4j.Layout;
+import org.apache.log4j.Level;
+import org.apache.log4j.spi.ErrorCode;
 import org.apache.log4j.spi.LoggingEvent;
+import javax.management.ListenerNotFoundException;
+import javax.management.MBeanNotificationInfo;
 import javax.management.MBeanServer;
+import javax.management.Notification;
+import javax.management.NotificationBroadcasterSupport;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationFilter;
+import javax.management.NotificationListener;
 import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+import java.io.IOException;
+import java.io.PrintStream;
 import java.lang.management.ManagementFactory;
+import java.nio.charset.Charset;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Custom Log4j Appender that stores LoggingEvents in memory.
  * Implements PDF requirements and Bonus MBean requirements.
  */
-public class MemAppender extends AppenderSkeleton implements MemAppenderMBean {
-    private static MemAppender instance;
+public class MemAppender extends AppenderSkeleton
+        implements MemAppenderMBean, NotificationEmitter, Iterable<LoggingEvent> {
+    /** JMX notification type carrying a batch of newly appended, formatted events. */
+    public static final String EVENTS_NOTIFICATION = "assign251_2.memappender.events";
+    private static final int NOTIFICATION_QUEUE_CAPACITY = 10000;
+    private static final int NOTIFICATION_BATCH_SIZE = 1000;
+    private static final FlightRecorderHooks JFR = FlightRecorderHooks.INSTANCE;
+
+    // volatile so getInstance() can skip locking once the instance exists
+    private static volatile MemAppender instance;
     // Stores LoggingEvents as required by PDF
     private final List<LoggingEvent> logEvents;
-    private int maxSize = 100;
-    private long discardedLogCount = 0;
+    private volatile int maxSize = 100;
+    // Written under the lock, read without it
+    private volatile long discardedLogCount = 0;
+    private final AppendStatistics statistics = new AppendStatistics();
+    // Per-second and per-minute history, guarded by the lock
+    private final RollupStatistics rollups = new RollupStatistics();
+    // Snapshots at least this large are formatted in parallel (thread-safe layouts only)
+    private volatile int parallelThreshold = 10000;
     private final ReentrantLock lock = new ReentrantLock();
+    // Optional full-text index of the window, guarded by the lock; null when disabled.
+    // volatile so append() can tokenize before taking the lock.
+    private volatile LogIndex index;
+    // Events ever added to the window, guarded by the lock. The window holds
+    // sequence numbers [appendSequence - size, appendSequence).
+    private long appendSequence = 0;
+    // Flight-recorder mode, guarded by the lock; null when disabled
+    private TriggeredDump triggeredDump;
+    // Continuous persistence, guarded by the lock; null when disabled
+    private WriteBehind writeBehind;
+    // Signalled when the write-behind thread takes its carried events
+    private final Condition carryDrained = lock.newCondition();
 
     // Store MBean name for un-registration
-    private ObjectName mbeanName = null;
+    private volatile ObjectName mbeanName = null;
+    // Pending background registration; close() waits for it before unregistering
+    private final Future<?> mbeanRegistration;
+
+    // Live tail subscribers; iterated on every append, modified rarely
+    private final List<LogSubscription> subscriptions = new CopyOnWriteArrayList<>();
+    // JMX notifications are fed from their own subscription by a background pump
+    private final NotificationBroadcasterSupport broadcaster = new NotificationBroadcasterSupport();
+    private final AtomicLong notificationSequence = new AtomicLong();
+    private volatile long notificationIntervalMillis = 1000;
+    private LogSubscription notificationSubscription;
+    private ScheduledExecutorService notificationPump;
+    // Registrations per JMX listener, so the pump stops once the last one is removed
+    private final Map<NotificationListener, Integer> notificationListeners = new IdentityHashMap<>();
 
     // Default constructor uses ArrayList
     private MemAppender() {
@@ -34,14 +107,22 @@ public class MemAppender extends AppenderSkeleton implements MemAppenderMBean {
     // Constructor with custom list for Dependency Injection
     private MemAppender(List<LoggingEvent> customList) {
         this.logEvents = customList;
-        registerMBean();
+        // Registering with the platform MBeanServer is slow on a cold JVM; keep it off the caller's thread
+        this.mbeanRegistration = MBeanRegistrar.EXECUTOR.submit(this::registerMBean);
     }
 
-    public static synchronized MemAppender getInstance() {
-        if (instance == null) {
-            instance = new MemAppender();
+    public static MemAppender getInstance() {
+        MemAppender current = instance;
+        if (current == null) {
+            synchronized (MemAppender.class) {
+                current = instance;
+                if (current == null) {
+                    current = new MemAppender();
+                    instance = current;
+                }
+            }
         }
-        return instance;
+        return current;
     }
 
     // Overloaded getInstance for testing (inject LoggingEvent list)
@@ -62,6 +143,31 @@ public class MemAppender extends AppenderSkeleton implements MemAppenderMBean {
         instance = null;
     }
 
+    /**
+     * Background thread for MBean registration, created on first use
+     * (initialization-on-demand holder).
+     */
+    private static final class MBeanRegistrar {
+        static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "MemAppender-mbean-registration");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Blocks until the background MBean registration has finished.
+     */
+    void awaitMBeanRegistration() {
+        try {
+            mbeanRegistration.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            e.printStackTrace();
+        }
+    }
+
     private void registerMBean() {
         try {
             MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
@@ -77,6 +183,7 @@ public class MemAppender extends AppenderSkeleton implements MemAppenderMBean {
 
     // Method to unregister the MBean
     private void unregisterMBean() {
+        awaitMBeanRegistration();
         if (this.mbeanName != null) {
             try {
                 MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
@@ -94,29 +201,128 @@ public class MemAppender extends AppenderSkeleton implements MemAppenderMBean {
     @Override
     protected void append(LoggingEvent event) {
         // This method only adds the event. Formatting is done on demand.
+        // Capture the thread name now: formatting may later run on another thread.
+        event.getThreadName();
+        // Tokenizing allocates per token; keep it out of the lock
+        String[] tokens = index != null ? LogIndex.tokenize(event.getRenderedMessage()) : null;
+        // Recorded as a JFR event only when the wait crosses the configured threshold.
+        // doAppend() is synchronized, so this measures waits behind readers and drains,
+        // not behind other logging threads (see jdk.JavaMonitorEnter for those).
+        Object lockWait = JFR.beginAppendLock();
         lock.lock();
+        JFR.endAppendLock(lockWait);
         try {
+            if (writeBehind != null) {
+                awaitCarryCapacity(writeBehind);
+            }
             if (logEvents.size() >= maxSize) {
                 discardedLogCount++;
                 // Remove oldest log
-                logEvents.remove(0);
+                evictOldest(1);
             }
             logEvents.add(event);
+            appendSequence++;
+            rollups.record(event);
+            if (index != null) {
+                // Tokenized here only if the index was enabled in the meantime
+                index.add(tokens != null ? tokens : LogIndex.tokenize(event.getRenderedMessage()));
+            }
+            if (triggeredDump != null) {
+                boolean due = triggeredDump.onAppend(event);
+                // While capturing, dump before undumped events start falling out of the window
+                if (due || triggeredDump.isCapturing() && appendSequence - triggeredDump.getDumpedThrough() >= maxSize) {
+                    dumpUndumped(triggeredDump);
+                }
+            }
+            if (writeBehind != null) {
+                writeBehind.wakeUp();
+            }
+            // Offered under the lock so every subscriber sees the buffer's order.
+            // The isEmpty() check keeps the common case free of iterator allocation.
+            if (!subscriptions.isEmpty()) {
+                for (LogSubscription subscription : subscriptions) {
+                    subscription.offer(event);
+                }
+            }
         } finally {
             lock.unlock();
         }
+        // Striped counters, no need to hold the lock
+        statistics.record(event);
+    }
+
+    /**
+     * Removes the oldest count events. Must be called with the lock held.
+     * EventSlotList drops them without materializing the removed events;
+     * other lists remove the range in one call (a single array shift for ArrayList).
+     * Events the write-behind thread has not reached yet move to its carry buffer,
+     * and a capturing dump writes its undumped events first.
+     */
+    private void evictOldest(int count) {
+        long evictedThrough = appendSequence - logEvents.size() + count;
+        if (writeBehind != null) {
+            carry(writeBehind, evictedThrough);
+        }
+        if (triggeredDump != null && triggeredDump.isCapturing() && triggeredDump.getDumpedThrough() < evictedThrough) {
+            dumpUndumped(triggeredDump);
+        }
+        if (index != null) {
+            index.removeOldest(count);
+        }
+        if (logEvents instanceof EventSlotList) {
+            ((EventSlotList) logEvents).removeFirst(count);
+        } else if (count == 1) {
+            logEvents.remove(0);
+        } else {
+            logEvents.subList(0, count).clear();
+        }
+    }
+
+    /**
+     * Hands the events the dump has not written yet to its background thread.
+     * Must be called with the lock held.
+     */
+    private void dumpUndumped(TriggeredDump dump) {
+        int size = logEvents.size();
+        long windowStart = appendSequence - size;
+        int from = (int) (Math.max(dump.getDumpedThrough(), windowStart) - windowStart);
+        LoggingEvent[] events = logEvents.subList(from, size).toArray(new LoggingEvent[0]);
+        dump.submit(events, appendSequence, layout, errorHandler);
+    }
+
+    // Must be called with the lock held
+    private void clearWindow() {
+        if (writeBehind != null) {
+            // Cleared events that were not persisted yet are still handed to the writer
+            carry(writeBehind, appendSequence);
+            writeBehind.wakeUp();
+        }
+        if (triggeredDump != null && triggeredDump.isCapturing()) {
+            // Post-trigger events captured so far are dumped before they are cleared
+            dumpUndumped(triggeredDump);
+        }
+        logEvents.clear();
+        if (index != null) {
+            index.clear();
+        }
     }
 
     @Override
     public void close() {
         // Clean up resources
+        disableTriggeredDump();
+        disableWriteBehind();
         lock.lock();
         try {
-            logEvents.clear();
+            clearWindow();
             discardedLogCount = 0;
+            rollups.reset();
         } finally {
             lock.unlock();
         }
+        statistics.reset();
+        stopNotificationPump();
+        subscriptions.clear();
         // CRITICAL: Unregister MBean when closing to avoid "InstanceAlreadyExists" errors in tests
         unregisterMBean();
     }
@@ -132,53 +338,261 @@ public class MemAppender extends AppenderSkeleton implements MemAppenderMBean {
      * PDF Req 1a: Returns an unmodifiable list of the cached LoggingEvents.
      */
     public List<LoggingEvent> getCurrentLogs() {
+        return Collections.unmodifiableList(Arrays.asList(snapshot()));
+    }
+
+    /**
+     * Returns a stream over a point-in-time snapshot of the cached LoggingEvents.
+     * Events appended after this call are not visible to the stream.
+     * The stream can be made parallel; its spliterator splits evenly by index.
+     */
+    public Stream<LoggingEvent> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Iterates over a point-in-time snapshot of the cached LoggingEvents.
+     * The iterator is read-only and never throws ConcurrentModificationException.
+     */
+    @Override
+    public Iterator<LoggingEvent> iterator() {
+        return Spliterators.iterator(spliterator());
+    }
+
+    @Override
+    public Spliterator<LoggingEvent> spliterator() {
+        return Spliterators.spliterator(snapshot(),
+                Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE);
+    }
+
+    /**
+     * Subscribes to events appended from now on. Each subscription has its own
+     * bounded queue of the given capacity; see LogSubscription.
+     */
+    public LogSubscription subscribe(int capacity) {
+        LogSubscription subscription = new LogSubscription(this, capacity);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    /**
+     * Stops delivering events to the subscription.
+     */
+    public void unsubscribe(LogSubscription subscription) {
+        subscriptions.remove(subscription);
+    }
+
+    /**
+     * Sets how often JMX listeners receive a batch of new events.
+     * Takes effect when the first listener is added.
+     */
+    public void setNotificationIntervalMillis(long notificationIntervalMillis) {
+        if (notificationIntervalMillis < 1) {
+            throw new IllegalArgumentException("notificationIntervalMillis must be positive");
+        }
+        this.notificationIntervalMillis = notificationIntervalMillis;
+    }
+
+    private synchronized void startNotificationPump() {
+        if (notificationPump != null) {
+            return;
+        }
+        notificationSubscription = subscribe(NOTIFICATION_QUEUE_CAPACITY);
+        notificationPump = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "MemAppender-notifications");
+            thread.setDaemon(true);
+            return thread;
+        });
+        notificationPump.scheduleWithFixedDelay(this::sendPendingNotifications,
+                notificationIntervalMillis, notificationIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void stopNotificationPump() {
+        if (notificationPump != null) {
+            notificationPump.shutdownNow();
+            notificationPump = null;
+            unsubscribe(notificationSubscription);
+            notificationSubscription = null;
+        }
+    }
+
+    // For tests
+    synchronized boolean isNotificationPumpRunning() {
+        return notificationPump != null;
+    }
+
+    private void sendPendingNotifications() {
+        LogSubscription subscription = notificationSubscription;
+        if (subscription == null) {
+            return;
+        }
+        List<LoggingEvent> batch;
+        while (!(batch = subscription.poll(NOTIFICATION_BATCH_SIZE)).isEmpty()) {
+            // An exception escaping this task would cancel all later runs of it
+            try {
+                Layout currentLayout = layout;
+                LoggingEvent[] events = batch.toArray(new LoggingEvent[0]);
+                String[] messages = currentLayout == null
+                        ? Arrays.stream(events).map(LoggingEvent::getRenderedMessage).toArray(String[]::new)
+                        : formatAll(events, currentLayout);
+                Notification notification = new Notification(EVENTS_NOTIFICATION, this,
+                        notificationSequence.incrementAndGet(), System.currentTimeMillis(),
+                        messages.length + " new events, " + subscription.getDroppedCount() + " dropped so far");
+                notification.setUserData(messages);
+                broadcaster.sendNotification(notification);
+            } catch (RuntimeException e) {
+                errorHandler.error("Failed to send " + batch.size() + " events as JMX notifications", e,
+                        ErrorCode.GENERIC_FAILURE);
+            }
+        }
+    }
+
+    /**
+     * Writes the cached events to a binary snapshot file (see EventSnapshot).
+     * The cache is left untouched.
+     * @return the number of events written
+     */
+    @Override
+    public int exportSnapshot(String path) throws IOException {
+        return EventSnapshot.write(snapshot(), Paths.get(path));
+    }
+
+    /**
+     * Adds the events from a binary snapshot file to the cache, oldest first.
+     * maxSize applies as usual, so older events may be discarded, and the index
+     * is updated. Imported events are history, not new activity: they do not
+     * fire dump triggers, reach subscribers or JMX listeners, get persisted by
+     * write-behind, or count towards the statistics and rollups.
+     * @return the number of events read
+     */
+    public int importSnapshot(String path) throws IOException {
+        List<LoggingEvent> events = EventSnapshot.read(Paths.get(path));
         lock.lock();
         try {
-            return Collections.unmodifiableList(new ArrayList<>(logEvents));
+            insertImported(events);
         } finally {
             lock.unlock();
         }
+        return events.size();
+    }
+
+    // Must be called with the lock held
+    private void insertImported(List<LoggingEvent> events) {
+        long end = appendSequence + events.size();
+        // Live events so far are still persisted and dumped; the imported range is skipped
+        if (writeBehind != null) {
+            carry(writeBehind, appendSequence);
+            writeBehind.cursor = end;
+        }
+        if (triggeredDump != null) {
+            if (triggeredDump.isCapturing()) {
+                dumpUndumped(triggeredDump);
+            }
+            triggeredDump.skipThrough(end);
+        }
+        // Only the newest maxSize events can stay; evict and skip the rest in bulk
+        int keep = Math.min(events.size(), maxSize);
+        int skipped = events.size() - keep;
+        int overflow = logEvents.size() + keep - maxSize;
+        if (overflow > 0) {
+            evictOldest(overflow);
+            discardedLogCount += overflow;
+        }
+        // Skipped events never enter the window, which is empty whenever there are any
+        appendSequence += skipped;
+        discardedLogCount += skipped;
+        List<LoggingEvent> kept = events.subList(skipped, events.size());
+        logEvents.addAll(kept);
+        appendSequence += keep;
+        if (index != null) {
+            for (LoggingEvent event : kept) {
+                index.add(event.getRenderedMessage());
+            }
+        }
     }
 
     /**
-     * PDF Req 1b: Returns an unmodifiable list of formatted strings.
-     * Formatting happens here, on demand.
+     * Formats the events in order. Large snapshots are split across the common
+     * ForkJoin pool when the layout is a ThreadSafeLayout; any other layout is
+     * formatted sequentially while holding the layout's monitor, since it may
+     * reuse internal buffers.
      */
-    public List<String> getEventStrings() {
+    private String[] formatAll(LoggingEvent[] events, Layout currentLayout) {
+        if (currentLayout instanceof ThreadSafeLayout && events.length >= parallelThreshold) {
+            return Arrays.stream(events).parallel()
+                    .map(currentLayout::format)
+                    .toArray(String[]::new);
+        }
+        String[] formatted = new String[events.length];
+        synchronized (currentLayout) {
+            for (int i = 0; i < events.length; i++) {
+                formatted[i] = currentLayout.format(events[i]);
+            }
+        }
+        return formatted;
+    }
+
+    /**
+     * Copies the cached event references into an array with a single bulk copy.
+     * Only the copy happens under the lock; callers traverse and format the
+     * array after the lock has been released.
+     */
+    private LoggingEvent[] snapshot() {
         lock.lock();
         try {
-            // Precondition check
-            if (layout == null) {
-                throw new IllegalStateException("Layout is required for getEventStrings()");
-            }
-            List<String> formattedMessages = logEvents.stream()
-                    .map(layout::format)
-                    .collect(Collectors.toList());
-            return Collections.unmodifiableList(formattedMessages);
+            return logEvents.toArray(new LoggingEvent[0]);
         } finally {
             lock.unlock();
         }
     }
 
+    /**
+     * PDF Req 1b: Returns an unmodifiable list of formatted strings.
+     * Formatting happens here, on demand.
+     */
+    public List<String> getEventStrings() {
+        Layout currentLayout = layout;
+        // Precondition check
+        if (currentLayout == null) {
+            throw new IllegalStateException("Layout is required for getEventStrings()");
+        }
+        // Formatting runs on the snapshot, after the lock has been released
+        Object drain = JFR.beginDrain();
+        String[] formatted = formatAll(snapshot(), currentLayout);
+        JFR.endDrain(drain, "getEventStrings", formatted.length);
+        return Collections.unmodifiableList(Arrays.asList(formatted));
+    }
+
     /**
      * PDF Req 1c: Prints formatted logs to console and clears the cache.
      */
     public void printLogs() {
+        Layout currentLayout = layout;
+        // Precondition check
+        if (currentLayout == null) {
+            throw new IllegalStateException("Layout is required for printLogs()");
+        }
+        Object drain = JFR.beginDrain();
+        LoggingEvent[] events;
         lock.lock();
         try {
-            // Precondition check
-            if (layout == null) {
-                throw new IllegalStateException("Layout is required for printLogs()");
-            }
-            for (LoggingEvent event : logEvents) {
-                // Use print, as layout (e.g., PatternLayout %n, VelocityLayout $n) handles newlines
-                System.out.print(layout.format(event));
-            }
-            logEvents.clear();
+            events = logEvents.toArray(new LoggingEvent[0]);
+            clearWindow();
             discardedLogCount = 0; // Cleared logs are not counted as discarded
         } finally {
             lock.unlock();
         }
+        // The console I/O happens without the lock. print(String) lets the stream
+        // encode in its own charset, which can differ from the default charset.
+        PrintStream out = System.out;
+        synchronized (currentLayout) {
+            for (LoggingEvent event : events) {
+                // Layout (e.g., PatternLayout %n, VelocityLayout $n) handles newlines
+                out.print(currentLayout.format(event));
+            }
+        }
+        out.flush();
+        JFR.endDrain(drain, "printLogs", events.length);
     }
 
     // === JMX MBean (Bonus) Implementations ===
@@ -189,20 +603,166 @@ public class MemAppender extends AppenderSkeleton implements MemAppenderMBean {
      */
     @Override
     public String[] getLogMessages() {
+        Layout currentLayout = layout;
+        LoggingEvent[] events = snapshot();
+        if (currentLayout == null) {
+            // Fallback to raw messages if no layout is set
+            return Arrays.stream(events)
+                    .map(LoggingEvent::getRenderedMessage)
+                    .toArray(String[]::new);
+        }
+        Object drain = JFR.beginDrain();
+        String[] formatted = formatAll(events, currentLayout);
+        JFR.endDrain(drain, "getLogMessages", formatted.length);
+        return formatted;
+    }
+
+    /**
+     * Returns the cached events whose message contains every word of the query,
+     * oldest first. Matching is case-insensitive on whole tokens (runs of letters,
+     * digits, '_' and '-'). With the index enabled the cost grows with the number
+     * of hits; otherwise every cached message is scanned.
+     */
+    public List<LoggingEvent> search(String query) {
+        return Collections.unmodifiableList(Arrays.asList(findAll(query)));
+    }
+
+    /**
+     * MBean operation: search() formatted like getLogMessages().
+     */
+    @Override
+    public String[] searchLogMessages(String query) {
+        Layout currentLayout = layout;
+        LoggingEvent[] events = findAll(query);
+        if (currentLayout == null) {
+            return Arrays.stream(events)
+                    .map(LoggingEvent::getRenderedMessage)
+                    .toArray(String[]::new);
+        }
+        return formatAll(events, currentLayout);
+    }
+
+    private LoggingEvent[] findAll(String query) {
+        String[] terms = LogIndex.tokenize(query);
+        if (terms.length == 0) {
+            return new LoggingEvent[0];
+        }
         lock.lock();
         try {
-            if (layout == null) {
-                // Fallback to raw messages if no layout is set
-                return logEvents.stream()
-                        .map(LoggingEvent::getRenderedMessage)
-                        .toArray(String[]::new);
+            if (index != null) {
+                return eventsAt(index.positions(terms));
             }
-            return logEvents.stream()
-                    .map(layout::format)
-                    .toArray(String[]::new);
         } finally {
             lock.unlock();
         }
+        // No index: scan a snapshot outside the lock
+        return Arrays.stream(snapshot())
+                .filter(event -> LogIndex.matches(event.getRenderedMessage(), terms))
+                .toArray(LoggingEvent[]::new);
+    }
+
+    /**
+     * The cached events at the ascending window positions. Lists without random
+     * access (LinkedList) are walked once instead of once per hit.
+     * Must be called with the lock held.
+     */
+    private LoggingEvent[] eventsAt(int[] positions) {
+        LoggingEvent[] events = new LoggingEvent[positions.length];
+        if (logEvents instanceof RandomAccess) {
+            for (int i = 0; i < positions.length; i++) {
+                events[i] = logEvents.get(positions[i]);
+            }
+            return events;
+        }
+        if (positions.length == 0) {
+            return events;
+        }
+        ListIterator<LoggingEvent> iterator = logEvents.listIterator(positions[0]);
+        int next = positions[0];
+        for (int i = 0; i < positions.length; i++) {
+            while (next < positions[i]) {
+                iterator.next();
+                next++;
+            }
+            events[i] = iterator.next();
+            next++;
+        }
+        return events;
+    }
+
+    /**
+     * Turns the full-text index used by search() on or off. Enabling indexes the
+     * events already cached; from then on every append also tokenizes its message.
+     */
+    @Override
+    public void setIndexEnabled(boolean enabled) {
+        lock.lock();
+        try {
+            if (enabled && index == null) {
+                LogIndex newIndex = new LogIndex();
+                for (LoggingEvent event : logEvents) {
+                    newIndex.add(event.getRenderedMessage());
+                }
+                index = newIndex;
+            } else if (!enabled) {
+                index = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isIndexEnabled() {
+        lock.lock();
+        try {
+            return index != null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public synchronized void addNotificationListener(NotificationListener listener, NotificationFilter filter,
+                                                     Object handback) {
+        broadcaster.addNotificationListener(listener, filter, handback);
+        notificationListeners.merge(listener, 1, Integer::sum);
+        startNotificationPump();
+    }
+
+    /**
+     * Removes every registration of the listener. The notification pump stops
+     * once no listener is left.
+     */
+    @Override
+    public synchronized void removeNotificationListener(NotificationListener listener)
+            throws ListenerNotFoundException {
+        broadcaster.removeNotificationListener(listener);
+        notificationListeners.remove(listener);
+        stopNotificationPumpIfUnused();
+    }
+
+    @Override
+    public synchronized void removeNotificationListener(NotificationListener listener, NotificationFilter filter,
+                                                        Object handback) throws ListenerNotFoundException {
+        broadcaster.removeNotificationListener(listener, filter, handback);
+        // The broadcaster removed exactly one registration
+        notificationListeners.computeIfPresent(listener, (l, count) -> count == 1 ? null : count - 1);
+        stopNotificationPumpIfUnused();
+    }
+
+    private synchronized void stopNotificationPumpIfUnused() {
+        if (notificationListeners.isEmpty()) {
+            stopNotificationPump();
+        }
+    }
+
+    @Override
+    public MBeanNotificationInfo[] getNotificationInfo() {
+        return new MBeanNotificationInfo[]{
+                new MBeanNotificationInfo(new String[]{EVENTS_NOTIFICATION}, Notification.class.getName(),
+                        "Batch of newly appended log events; user data is a String[] of formatted events")
+        };
     }
 
     /**
@@ -214,44 +774,373 @@ public class MemAppender extends AppenderSkeleton implements MemAppenderMBean {
     }
 
     /**
-     * MBean Req 2: Get estimated cache size in bytes (total characters).
+     * Total number of events appended since creation or the last reset(),
+     * including events that were later discarded or cleared.
      */
     @Override
-    public long getEstimatedCacheSize() {
+    public long getAppendedCount() {
+        return statistics.getTotal();
+    }
+
+    @Override
+    public double getOneMinuteRate() {
+        return statistics.getOneMinuteRate();
+    }
+
+    @Override
+    public double getFiveMinuteRate() {
+        return statistics.getFiveMinuteRate();
+    }
+
+    @Override
+    public double getFifteenMinuteRate() {
+        return statistics.getFifteenMinuteRate();
+    }
+
+    /**
+     * Appended events per level (TRACE to FATAL, plus OTHER for custom levels).
+     */
+    @Override
+    public CompositeData getLevelCounts() {
+        return statistics.levelCounts();
+    }
+
+    /**
+     * Appended events per logger name. After AppendStatistics.MAX_LOGGERS distinct
+     * names, further loggers are counted under "(other)".
+     */
+    @Override
+    public TabularData getLoggerCounts() {
+        return statistics.loggerCounts();
+    }
+
+    /**
+     * MBean operation: events of the level (TRACE ... FATAL, OTHER) in each of the
+     * last seconds seconds (at most 3600), oldest first. Counts survive eviction.
+     */
+    @Override
+    public long[] getLevelCountsPerSecond(String level, int seconds) {
         lock.lock();
         try {
-            if (layout == null) {
-                // Estimate based on raw message length
-                return logEvents.stream()
-                        .mapToLong(e -> e.getRenderedMessage().length())
-                        .sum();
-            }
-            // Estimate based on formatted message byte length
-            return logEvents.stream()
-                    .mapToLong(e -> layout.format(e).getBytes().length)
-                    .sum();
+            return rollups.perSecond(level, seconds);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * MBean operation: events of the level in each of the last minutes minutes
+     * (at most 1440), oldest first.
+     */
+    @Override
+    public long[] getLevelCountsPerMinute(String level, int minutes) {
+        lock.lock();
+        try {
+            return rollups.perMinute(level, minutes);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * MBean operation: the 10 busiest loggers over the last minutes minutes
+     * (at most 60). Counts are upper bounds once a minute sees more than 10 loggers.
+     */
+    @Override
+    public TabularData getTopLoggers(int minutes) {
+        lock.lock();
+        try {
+            return rollups.topLoggers(minutes);
         } finally {
             lock.unlock();
         }
     }
 
+    /**
+     * MBean Req 2: Get estimated cache size in bytes (total characters).
+     */
+    @Override
+    public long getEstimatedCacheSize() {
+        Layout currentLayout = layout;
+        LoggingEvent[] events = snapshot();
+        if (currentLayout == null) {
+            // Estimate based on raw message length
+            return Arrays.stream(events)
+                    .mapToLong(e -> e.getRenderedMessage().length())
+                    .sum();
+        }
+        // Estimate based on formatted message byte length, without building byte arrays
+        EventEncoder encoder = new EventEncoder(Charset.defaultCharset());
+        long total = 0;
+        synchronized (currentLayout) {
+            for (LoggingEvent event : events) {
+                total += encoder.encodedLength(currentLayout, event);
+            }
+        }
+        return total;
+    }
+
     /**
      * Resets the appender to a clean state.
      */
     public void reset() {
         lock.lock();
         try {
-            logEvents.clear();
+            clearWindow();
             discardedLogCount = 0;
+            rollups.reset();
         } finally {
             lock.unlock();
         }
+        statistics.reset();
     }
 
     /**
-     * Sets the max cache size.
+     * Flight-recorder mode: keeps the window in memory and writes it to the file,
+     * through the layout and on a background thread, only when an event at or above
+     * triggerLevel arrives. The postTriggerEvents events that follow are written
+     * too, and triggers less than minIntervalMillis after the previous one are
+     * ignored. Replaces any earlier configuration.
      */
+    public void enableTriggeredDump(Level triggerLevel, String path, int postTriggerEvents, long minIntervalMillis) {
+        TriggeredDump dump = new TriggeredDump(triggerLevel, Paths.get(path), postTriggerEvents, minIntervalMillis);
+        TriggeredDump previous;
+        lock.lock();
+        try {
+            previous = detachTriggeredDump();
+            triggeredDump = dump;
+        } finally {
+            lock.unlock();
+        }
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    /**
+     * Stops flight-recorder mode. Events captured after a trigger so far are still
+     * written, and this waits until all pending dumps are on disk.
+     */
+    public void disableTriggeredDump() {
+        TriggeredDump previous;
+        lock.lock();
+        try {
+            previous = detachTriggeredDump();
+        } finally {
+            lock.unlock();
+        }
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    // Must be called with the lock held
+    private TriggeredDump detachTriggeredDump() {
+        TriggeredDump previous = triggeredDump;
+        if (previous != null && previous.isCapturing()) {
+            dumpUndumped(previous);
+        }
+        triggeredDump = null;
+        return previous;
+    }
+
+    /**
+     * Starts persisting every event appended from now on to the file, on a background
+     * thread. Each batch of new events is formatted with the layout and written with
+     * one gather write, followed by force() if forceOnCommit is set. The file is
+     * rotated to path.1 ... path.maxBackups once it would exceed maxFileSize bytes
+     * (0 disables rotation). The window is not cleared. Events that leave the window
+     * before they are written are kept for the writer; append() blocks while 16384
+     * of them are waiting, so no event is lost.
+     */
+    public void enableWriteBehind(String path, long maxFileSize, int maxBackups, boolean forceOnCommit) {
+        LogFileWriter writer = new LogFileWriter(Paths.get(path), LogFileWriter.DEFAULT_BUFFER_SIZE,
+                maxFileSize, maxBackups);
+        disableWriteBehind();
+        lock.lock();
+        try {
+            writeBehind = new WriteBehind(writer, forceOnCommit, appendSequence, this::drainWriteBehind, errorHandler);
+            writeBehind.start();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops write-behind persistence after writing every event appended so far.
+     */
+    public void disableWriteBehind() {
+        WriteBehind previous;
+        lock.lock();
+        try {
+            previous = writeBehind;
+            if (previous != null) {
+                // The detached writer drains only its carry buffer from now on
+                carry(previous, appendSequence);
+                writeBehind = null;
+                carryDrained.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (previous != null) {
+            previous.stop();
+        }
+    }
+
+    /**
+     * Next batch for the write-behind thread: its carried events, then everything
+     * between its cursor and the end of the window. A detached writer only gets
+     * its carried events.
+     */
+    private WriteBehind.Batch drainWriteBehind(WriteBehind target) {
+        lock.lock();
+        try {
+            LoggingEvent[] events;
+            if (target.carried.isEmpty()) {
+                // Common case: copy straight from the window
+                long end = target == writeBehind ? appendSequence : target.cursor;
+                if (target.cursor >= end) {
+                    return WriteBehind.Batch.EMPTY;
+                }
+                long windowStart = appendSequence - logEvents.size();
+                events = logEvents.subList((int) (target.cursor - windowStart), (int) (end - windowStart))
+                        .toArray(new LoggingEvent[0]);
+                target.cursor = end;
+            } else {
+                if (target == writeBehind) {
+                    carry(target, appendSequence);
+                }
+                events = target.carried.toArray(new LoggingEvent[0]);
+                target.carried.clear();
+                carryDrained.signalAll();
+            }
+            return new WriteBehind.Batch(events, layout);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Moves the window's events from the writer's cursor up to the sequence number
+     * end into its carry buffer. If the writer thread has died, nothing would ever
+     * drain the buffer, so the events are counted as lost instead.
+     * Must be called with the lock held.
+     */
+    private void carry(WriteBehind target, long end) {
+        long windowStart = appendSequence - logEvents.size();
+        if (target.cursor >= end) {
+            return;
+        }
+        if (!target.isRunning()) {
+            target.addLost(end - target.cursor);
+            target.cursor = end;
+            return;
+        }
+        target.carried.addAll(logEvents.subList((int) (target.cursor - windowStart), (int) (end - windowStart)));
+        target.cursor = end;
+    }
+
+    /**
+     * Blocks the appending thread while the writer's carry buffer is full.
+     * An interrupt ends the wait early and keeps the thread's interrupt status.
+     * Must be called with the lock held.
+     */
+    private void awaitCarryCapacity(WriteBehind target) {
+        while (target.carried.size() >= WriteBehind.MAX_CARRIED && target == writeBehind && target.isRunning()) {
+            target.wakeUp();
+            try {
+                carryDrained.await(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Events written by write-behind persistence since it was enabled.
+     */
+    @Override
+    public long getPersistedCount() {
+        lock.lock();
+        try {
+            return writeBehind == null ? 0 : writeBehind.getPersistedCount();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Events write-behind persistence failed to write because of I/O or layout
+     * errors, which are also reported to the appender's error handler.
+     */
+    @Override
+    public long getPersistenceLostCount() {
+        lock.lock();
+        try {
+            return writeBehind == null ? 0 : writeBehind.getLostCount();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Number of triggers that caused a dump since flight-recorder mode was enabled.
+     */
+    @Override
+    public long getDumpTriggerCount() {
+        lock.lock();
+        try {
+            return triggeredDump == null ? 0 : triggeredDump.getTriggerCount();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sets the minimum number of events for which getEventStrings() and
+     * getLogMessages() format in parallel. Only applies to ThreadSafeLayouts.
+     */
+    public void setParallelThreshold(int parallelThreshold) {
+        if (parallelThreshold < 1) {
+            throw new IllegalArgumentException("parallelThreshold must be positive");
+        }
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    /**
+     * Sets the max cache size. Safe to call while logging, including over JMX.
+     * Shrinking evicts the oldest excess events in one range removal and counts
+     * them as discarded; growing only raises the limit, so the storage grows as
+     * events arrive instead of being copied up front.
+     */
+    @Override
     public void setMaxSize(int maxSize) {
-        this.maxSize = maxSize;
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        lock.lock();
+        try {
+            this.maxSize = maxSize;
+            int excess = logEvents.size() - maxSize;
+            if (excess > 0) {
+                Object eviction = JFR.beginEviction();
+                evictOldest(excess);
+                discardedLogCount += excess;
+                JFR.endEviction(eviction, excess);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int getMaxSize() {
+        return maxSize;
     }
 }
\ No newline at end of file
@@ -1,7 +1,29 @@
 package assign251_2;
 
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+import java.io.IOException;
+
 public interface MemAppenderMBean {
     String[] getLogMessages();
     long getDiscardedLogCount();
     long getEstimatedCacheSize();
+    long getAppendedCount();
+    double getOneMinuteRate();
+    double getFiveMinuteRate();
+    double getFifteenMinuteRate();
+    CompositeData getLevelCounts();
+    TabularData getLoggerCounts();
+    long[] getLevelCountsPerSecond(String level, int seconds);
+    long[] getLevelCountsPerMinute(String level, int minutes);
+    TabularData getTopLoggers(int minutes);
+    int getMaxSize();
+    void setMaxSize(int maxSize);
+    int exportSnapshot(String path) throws IOException;
+    boolean isIndexEnabled();
+    void setIndexEnabled(boolean enabled);
+    String[] searchLogMessages(String query);
+    long getDumpTriggerCount();
+    long getPersistedCount();
+    long getPersistenceLostCount();
 }
@@ -0,0 +1,252 @@
+package assign251_2;
+
+import org.apache.log4j.spi.LoggingEvent;
+import javax.management.openmbean.CompositeDataSupport;
+import javax.management.openmbean.CompositeType;
+import javax.management.openmbean.OpenDataException;
+import javax.management.openmbean.OpenType;
+import javax.management.openmbean.SimpleType;
+import javax.management.openmbean.TabularData;
+import javax.management.openmbean.TabularDataSupport;
+import javax.management.openmbean.TabularType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Time-series rollups of appended events that outlive the events themselves:
+ * counts per level for each of the last 3600 seconds and 1440 minutes, and the
+ * top loggers for each of the last 60 minutes.
+ *
+ * Everything lives in fixed-size rings of primitives (about 140 KB of counters)
+ * bucketed by the events' own timestamps, so memory does not grow with volume.
+ * Top loggers per minute are tracked with the space-saving algorithm: counts are
+ * exact while a minute sees at most TOP_K distinct loggers and overestimate
+ * otherwise. Not thread-safe: MemAppender calls it under its lock.
+ */
+final class RollupStatistics {
+    static final int SECONDS = 3600;
+    static final int MINUTES = 1440;
+    static final int TOP_LOGGER_MINUTES = 60;
+    static final int TOP_K = 10;
+    private static final int LEVELS = AppendStatistics.LEVEL_NAMES.length;
+
+    private final LevelRing perSecond = new LevelRing(SECONDS);
+    private final LevelRing perMinute = new LevelRing(MINUTES);
+    private final TopLoggers[] topLoggers = new TopLoggers[TOP_LOGGER_MINUTES];
+    private final LongSupplier millisClock;
+
+    RollupStatistics() {
+        this(System::currentTimeMillis);
+    }
+
+    // Clock injectable for tests
+    RollupStatistics(LongSupplier millisClock) {
+        this.millisClock = millisClock;
+        for (int i = 0; i < topLoggers.length; i++) {
+            topLoggers[i] = new TopLoggers();
+        }
+    }
+
+    void record(LoggingEvent event) {
+        long millis = event.getTimeStamp();
+        int level = AppendStatistics.levelIndex(event.getLevel());
+        perSecond.add(Math.floorDiv(millis, 1000L), level);
+        long minute = Math.floorDiv(millis, 60_000L);
+        perMinute.add(minute, level);
+
+        TopLoggers top = topLoggers[(int) Math.floorMod(minute, (long) TOP_LOGGER_MINUTES)];
+        if (top.minute < minute) {
+            top.reset(minute);
+        }
+        if (top.minute == minute) {
+            String loggerName = event.getLoggerName();
+            top.offer(loggerName == null ? AppendStatistics.OTHER_LOGGERS : loggerName);
+        }
+    }
+
+    void reset() {
+        perSecond.reset();
+        perMinute.reset();
+        for (TopLoggers top : topLoggers) {
+            top.reset(Long.MIN_VALUE);
+        }
+    }
+
+    /**
+     * Events of the level in each of the last count seconds, oldest first,
+     * ending with the current second.
+     */
+    long[] perSecond(String levelName, int count) {
+        return series(perSecond, levelIndex(levelName), count, Math.floorDiv(millisClock.getAsLong(), 1000L));
+    }
+
+    /**
+     * Events of the level in each of the last count minutes, oldest first.
+     */
+    long[] perMinute(String levelName, int count) {
+        return series(perMinute, levelIndex(levelName), count, Math.floorDiv(millisClock.getAsLong(), 60_000L));
+    }
+
+    /**
+     * The TOP_K busiest loggers over the last count minutes, merged from the
+     * per-minute sketches.
+     */
+    TabularData topLoggers(int minutes) {
+        if (minutes < 1 || minutes > TOP_LOGGER_MINUTES) {
+            throw new IllegalArgumentException("minutes must be between 1 and " + TOP_LOGGER_MINUTES);
+        }
+        long now = Math.floorDiv(millisClock.getAsLong(), 60_000L);
+        Map<String, Long> merged = new HashMap<>();
+        for (TopLoggers top : topLoggers) {
+            if (top.minute > now - minutes && top.minute <= now) {
+                for (int i = 0; i < top.size; i++) {
+                    merged.merge(top.names[i], top.counts[i], Long::sum);
+                }
+            }
+        }
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(merged.entrySet());
+        entries.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        try {
+            TabularDataSupport table = new TabularDataSupport(OpenTypes.TOP_LOGGERS);
+            for (Map.Entry<String, Long> entry : entries.subList(0, Math.min(TOP_K, entries.size()))) {
+                table.put(new CompositeDataSupport(OpenTypes.TOP_LOGGER, OpenTypes.TOP_LOGGER_ITEMS,
+                        new Object[]{entry.getKey(), entry.getValue()}));
+            }
+            return table;
+        } catch (OpenDataException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long[] series(LevelRing ring, int level, int count, long now) {
+        if (count < 1 || count > ring.buckets) {
+            throw new IllegalArgumentException("count must be between 1 and " + ring.buckets);
+        }
+        long[] series = new long[count];
+        for (int i = 0; i < count; i++) {
+            series[i] = ring.count(now - count + 1 + i, level);
+        }
+        return series;
+    }
+
+    private static int levelIndex(String levelName) {
+        for (int i = 0; i < LEVELS; i++) {
+            if (AppendStatistics.LEVEL_NAMES[i].equalsIgnoreCase(levelName)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown level: " + levelName);
+    }
+
+    /**
+     * Per-level counts for the last n time units. Moving to a newer unit clears the
+     * buckets it skips; events older than the ring are dropped.
+     */
+    private static final class LevelRing {
+        final int buckets;
+        private final int[] counts;
+        private long head = Long.MIN_VALUE; // newest time unit seen
+
+        LevelRing(int buckets) {
+            this.buckets = buckets;
+            this.counts = new int[buckets * LEVELS];
+        }
+
+        void add(long time, int level) {
+            if (head == Long.MIN_VALUE || time > head) {
+                advance(time);
+            } else if (time <= head - buckets) {
+                return; // too old
+            }
+            counts[offset(time) + level]++;
+        }
+
+        long count(long time, int level) {
+            if (head == Long.MIN_VALUE || time > head || time <= head - buckets) {
+                return 0;
+            }
+            return counts[offset(time) + level];
+        }
+
+        void reset() {
+            Arrays.fill(counts, 0);
+            head = Long.MIN_VALUE;
+        }
+
+        private void advance(long time) {
+            long skipped = head == Long.MIN_VALUE ? buckets : Math.min(time - head, buckets);
+            for (long t = time - skipped + 1; t <= time; t++) {
+                int offset = offset(t);
+                Arrays.fill(counts, offset, offset + LEVELS, 0);
+            }
+            head = time;
+        }
+
+        private int offset(long time) {
+            return (int) Math.floorMod(time, (long) buckets) * LEVELS;
+        }
+    }
+
+    /**
+     * Space-saving sketch of the TOP_K busiest loggers in one minute.
+     */
+    private static final class TopLoggers {
+        long minute = Long.MIN_VALUE;
+        final String[] names = new String[TOP_K];
+        final long[] counts = new long[TOP_K];
+        int size = 0;
+
+        void reset(long minute) {
+            this.minute = minute;
+            Arrays.fill(names, null);
+            size = 0;
+        }
+
+        void offer(String name) {
+            int min = 0;
+            for (int i = 0; i < size; i++) {
+                if (names[i].equals(name)) {
+                    counts[i]++;
+                    return;
+                }
+                if (counts[i] < counts[min]) {
+                    min = i;
+                }
+            }
+            if (size < TOP_K) {
+                names[size] = name;
+                counts[size] = 1;
+                size++;
+            } else {
+                // Replace the smallest entry; the newcomer inherits its count
+                names[min] = name;
+                counts[min]++;
+            }
+        }
+    }
+
+    /**
+     * Open types for the JMX operations.
+     */
+    private static final class OpenTypes {
+        static final String[] TOP_LOGGER_ITEMS = {"logger", "count"};
+        static final CompositeType TOP_LOGGER;
+        static final TabularType TOP_LOGGERS;
+
+        static {
+            try {
+                TOP_LOGGER = new CompositeType("TopLogger", "Approximate appended events for one logger",
+                        TOP_LOGGER_ITEMS, new String[]{"Logger name", "Appended events (upper bound)"},
+                        new OpenType<?>[]{SimpleType.STRING, SimpleType.LONG});
+                TOP_LOGGERS = new TabularType("TopLoggers", "Busiest loggers",
+                        TOP_LOGGER, new String[]{"logger"});
+            } catch (OpenDataException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+    }
+}
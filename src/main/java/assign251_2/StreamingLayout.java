@@ -0,0 +1,16 @@
+package assign251_2;
+
+import org.apache.log4j.spi.LoggingEvent;
+
+/**
+ * A layout that can render an event straight into a caller-supplied buffer.
+ * MemAppender uses this instead of format() on its drain and size paths, so no
+ * intermediate String is built per event.
+ */
+public interface StreamingLayout {
+
+    /**
+     * Appends exactly the text that format(event) would return.
+     */
+    void format(LoggingEvent event, StringBuilder out);
+}
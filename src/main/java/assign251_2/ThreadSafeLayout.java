@@ -0,0 +1,10 @@
+package assign251_2;
+
+/**
+ * Marker for layouts whose format() may be called from several threads at once.
+ * MemAppender only formats large snapshots in parallel for layouts that implement it;
+ * all other layouts (e.g. PatternLayout, which reuses one internal buffer) are
+ * formatted sequentially.
+ */
+public interface ThreadSafeLayout {
+}
@@ -0,0 +1,139 @@
+package assign251_2;
+
+import org.apache.log4j.spi.LoggingEvent;
+import org.apache.log4j.spi.ThrowableInformation;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renders stack traces once and shares the result between identical throwables.
+ *
+ * Two throwables are identical when every throwable in their cause chain has the
+ * same class, toString() and stack frames, which is exactly what printStackTrace()
+ * prints. During an exception storm the same trace
+ * is then rendered once, and every event refers to the same String[] and String.
+ * The cache is a small LRU map, so unusual traces do not accumulate.
+ */
+final class ThrowableRenderer {
+    private static final int MAX_ENTRIES = 256;
+    private static final int MAX_CAUSE_DEPTH = 64;
+
+    private static final Map<Key, Rendering> CACHE = new LinkedHashMap<Key, Rendering>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Rendering> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    private ThrowableRenderer() {
+    }
+
+    /**
+     * Stack trace lines of the event's throwable, or null if it has none.
+     */
+    static String[] lines(LoggingEvent event) {
+        ThrowableInformation info = event.getThrowableInformation();
+        if (info == null) {
+            return null;
+        }
+        Throwable throwable = info.getThrowable();
+        // Events rebuilt from a snapshot or slot only carry the rendered lines
+        return throwable == null ? info.getThrowableStrRep() : rendering(throwable).lines;
+    }
+
+    /**
+     * Stack trace of the event's throwable joined with line separators,
+     * or an empty string if it has none.
+     */
+    static String text(LoggingEvent event) {
+        ThrowableInformation info = event.getThrowableInformation();
+        if (info == null) {
+            return "";
+        }
+        Throwable throwable = info.getThrowable();
+        return throwable == null ? join(info.getThrowableStrRep()) : rendering(throwable).text;
+    }
+
+    private static Rendering rendering(Throwable throwable) {
+        Key key = Key.of(throwable);
+        if (key == null) {
+            // Not representable as a key (suppressed exceptions, very deep chain): render without caching
+            return new Rendering(render(throwable));
+        }
+        Rendering cached;
+        synchronized (CACHE) {
+            cached = CACHE.get(key);
+        }
+        if (cached == null) {
+            // Render outside the lock; a concurrent duplicate render is harmless
+            cached = new Rendering(render(throwable));
+            synchronized (CACHE) {
+                CACHE.put(key, cached);
+            }
+        }
+        return cached;
+    }
+
+    private static String[] render(Throwable throwable) {
+        StringWriter sw = new StringWriter();
+        throwable.printStackTrace(new PrintWriter(sw));
+        return sw.toString().split("\\r?\\n");
+    }
+
+    private static String join(String[] lines) {
+        return lines == null ? "" : String.join(System.lineSeparator(), lines);
+    }
+
+    private static final class Rendering {
+        final String[] lines;
+        final String text;
+
+        Rendering(String[] lines) {
+            this.lines = lines;
+            this.text = join(lines);
+        }
+    }
+
+    /**
+     * Class, toString() and frames of each throwable in a cause chain.
+     */
+    private static final class Key {
+        private final Object[] parts;
+        private final int hash;
+
+        private Key(Object[] parts) {
+            this.parts = parts;
+            this.hash = Arrays.deepHashCode(parts);
+        }
+
+        static Key of(Throwable throwable) {
+            List<Object> parts = new ArrayList<>();
+            int depth = 0;
+            for (Throwable t = throwable; t != null; t = t.getCause()) {
+                if (t.getSuppressed().length > 0 || ++depth > MAX_CAUSE_DEPTH) {
+                    return null;
+                }
+                parts.add(t.getClass());
+                // Not getMessage(): subclasses may print more, e.g. extra fields
+                parts.add(t.toString());
+                parts.add(t.getStackTrace());
+            }
+            return new Key(parts.toArray());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && hash == ((Key) o).hash && Arrays.deepEquals(parts, ((Key) o).parts);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
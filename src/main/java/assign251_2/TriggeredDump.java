@@ -0,0 +1,137 @@
+package assign251_2;
+
+import org.apache.log4j.Layout;
+import org.apache.log4j.Level;
+import org.apache.log4j.spi.ErrorCode;
+import org.apache.log4j.spi.ErrorHandler;
+import org.apache.log4j.spi.LoggingEvent;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Flight-recorder mode for MemAppender: the window stays in memory and is written to
+ * a file only when an event at or above the trigger level arrives.
+ *
+ * On a trigger the window is dumped at once, so the context survives even if the
+ * process dies right after the failure. The next postTriggerEvents events are then
+ * captured and dumped as a second batch. Triggers closer together than the minimum
+ * interval are ignored. Writes run on a single background thread through a
+ * LogFileWriter, and no event is written twice.
+ *
+ * onAppend() and the cursor methods must be called with MemAppender's lock held.
+ */
+final class TriggeredDump {
+    private static final long CLOSE_TIMEOUT_SECONDS = 30;
+
+    private final Level triggerLevel;
+    private final int postTriggerEvents;
+    private final long minIntervalNanos;
+    private final LogFileWriter writer;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "MemAppender-dump");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Guarded by MemAppender's lock
+    private boolean triggered = false;
+    private long lastTriggerNanos;
+    private int remainingPostTrigger = 0;
+    // Sequence number after the last event handed to the writer
+    private long dumpedThrough = 0;
+    private long triggerCount = 0;
+
+    TriggeredDump(Level triggerLevel, Path file, int postTriggerEvents, long minIntervalMillis) {
+        if (triggerLevel == null || file == null) {
+            throw new IllegalArgumentException("triggerLevel and file are required");
+        }
+        if (postTriggerEvents < 0 || minIntervalMillis < 0) {
+            throw new IllegalArgumentException("postTriggerEvents and minIntervalMillis must not be negative");
+        }
+        this.triggerLevel = triggerLevel;
+        this.postTriggerEvents = postTriggerEvents;
+        this.minIntervalNanos = TimeUnit.MILLISECONDS.toNanos(minIntervalMillis);
+        this.writer = new LogFileWriter(file, LogFileWriter.DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Called for every appended event. Returns true if the undumped part of the
+     * window should be dumped now.
+     */
+    boolean onAppend(LoggingEvent event) {
+        if (remainingPostTrigger > 0) {
+            return --remainingPostTrigger == 0;
+        }
+        if (!event.getLevel().isGreaterOrEqual(triggerLevel)) {
+            return false;
+        }
+        long now = System.nanoTime();
+        if (triggered && now - lastTriggerNanos < minIntervalNanos) {
+            return false; // rate limited
+        }
+        triggered = true;
+        lastTriggerNanos = now;
+        remainingPostTrigger = postTriggerEvents;
+        triggerCount++;
+        return true;
+    }
+
+    /** True while post-trigger events are still being captured. */
+    boolean isCapturing() {
+        return remainingPostTrigger > 0;
+    }
+
+    long getDumpedThrough() {
+        return dumpedThrough;
+    }
+
+    /**
+     * Treats everything before the sequence number as dumped, e.g. imported events.
+     */
+    void skipThrough(long sequence) {
+        dumpedThrough = Math.max(dumpedThrough, sequence);
+    }
+
+    long getTriggerCount() {
+        return triggerCount;
+    }
+
+    /**
+     * Hands the events to the background thread; through is the sequence number
+     * after the last of them.
+     */
+    void submit(LoggingEvent[] events, long through, Layout layout, ErrorHandler errorHandler) {
+        dumpedThrough = through;
+        if (events.length == 0) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                writer.write(events, layout);
+            } catch (IOException e) {
+                errorHandler.error("Failed to dump events to " + writer.getFile(), e, ErrorCode.WRITE_FAILURE);
+            } catch (RuntimeException e) {
+                // Typically the layout; reported here since the executor would swallow it
+                errorHandler.error("Failed to format events for " + writer.getFile(), e, ErrorCode.GENERIC_FAILURE);
+            }
+        });
+    }
+
+    /**
+     * Waits for submitted dumps to finish and closes the file.
+     */
+    void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            writer.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
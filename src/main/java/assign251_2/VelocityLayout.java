@@ -2,17 +2,27 @@ package assign251_2;
 
 import org.apache.log4j.Layout;
 import org.apache.log4j.spi.LoggingEvent;
+import org.apache.velocity.Template;
 import org.apache.velocity.VelocityContext;
-import org.apache.velocity.app.VelocityEngine;
-import java.io.StringWriter;
+import org.apache.velocity.runtime.RuntimeInstance;
+import org.apache.velocity.runtime.parser.node.SimpleNode;
+import java.io.StringReader;
 import java.io.Writer;
 import java.util.Date;
 import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
 
-public class VelocityLayout extends Layout {
-    private final VelocityEngine velocityEngine;
-    // Removed class-level VelocityContext to ensure thread safety
-    private String template;
+public class VelocityLayout extends Layout implements ThreadSafeLayout, StreamingLayout {
+    private static final String TEMPLATE_NAME = "VelocityLayout-";
+    // Each parsed pattern gets its own template name, so its inline macros get their own namespace
+    private static final AtomicLong TEMPLATE_IDS = new AtomicLong();
+    private static final FlightRecorderHooks JFR = FlightRecorderHooks.INSTANCE;
+    // Matches $e, $!e, ${e} and $!{e}
+    private static final Pattern THROWABLE_REFERENCE = Pattern.compile("\\$!?\\{?e(?![A-Za-z0-9_-])");
+    // Parsed form of the current pattern; re-parsed lazily when the pattern changes
+    private volatile ParsedTemplate parsed;
+    private volatile String template;
 
     public VelocityLayout() {
         this(null);
@@ -20,27 +30,55 @@ public class VelocityLayout extends Layout {
 
     public VelocityLayout(String pattern) {
         this.template = pattern;
-        this.velocityEngine = new VelocityEngine();
-        try {
-            // Configure Velocity to use a simple string-based logger
-            // and avoid classloader issues
-            Properties props = new Properties();
-            props.setProperty("runtime.log.logsystem.class", "org.apache.velocity.runtime.log.NullLogChute");
-            velocityEngine.init(props);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to initialize VelocityEngine", e);
+    }
+
+    /**
+     * One Velocity runtime shared by all VelocityLayouts, created on first use
+     * (initialization-on-demand holder).
+     */
+    private static final class EngineHolder {
+        static final RuntimeInstance ENGINE = createEngine();
+
+        private static RuntimeInstance createEngine() {
+            RuntimeInstance engine = new RuntimeInstance();
+            try {
+                // Configure Velocity to use a simple string-based logger
+                // and avoid classloader issues
+                Properties props = new Properties();
+                props.setProperty("runtime.log.logsystem.class", "org.apache.velocity.runtime.log.NullLogChute");
+                // #macro definitions in a pattern are only visible to that pattern
+                props.setProperty("velocimacro.permissions.allow.inline.local.scope", "true");
+                engine.init(props);
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to initialize VelocityEngine", e);
+            }
+            return engine;
         }
     }
 
     @Override
     public String format(LoggingEvent event) {
+        StringBuilder out = new StringBuilder(128);
+        format(event, out);
+        return out.toString();
+    }
+
+    /**
+     * Renders the event straight into the caller's buffer.
+     */
+    @Override
+    public void format(LoggingEvent event, StringBuilder out) {
         String message = event.getRenderedMessage() == null ? "" : event.getRenderedMessage();
 
-        // Handle null template: return raw message
-        if (template == null) {
-            return message;
+        // Handle null or invalid template: return raw message
+        ParsedTemplate current = parsedTemplate();
+        if (current == null || current.template == null) {
+            out.append(message);
+            return;
         }
 
+        int start = out.length();
+        Object formatting = JFR.beginFormat();
         try {
             // CRITICAL FIX: Create context inside format() to be thread-safe.
             // Logging events can happen concurrently.
@@ -49,7 +87,7 @@ public class VelocityLayout extends Layout {
             context.put("m", message);  // Support $m variable
             context.put("p", event.getLevel().toString());  // Support $p variable
             context.put("c", event.getLoggerName());       // Support $c variable
-            context.put("t", Thread.currentThread().getName()); // Support $t variable
+            context.put("t", event.getThreadName()); // Support $t variable (thread that logged the event)
 
             // Format date for $d variable
             String formattedDate = new Date(event.getTimeStamp()).toString();
@@ -58,19 +96,29 @@ public class VelocityLayout extends Layout {
             // Support $n variable (platform line separator)
             context.put("n", System.lineSeparator());
 
-            Writer writer = new StringWriter();
-            velocityEngine.evaluate(context, writer, "VelocityLayout", template);
+            // Support $e variable (stack trace, rendered once per distinct trace)
+            if (current.rendersThrowable) {
+                context.put("e", ThrowableRenderer.text(event));
+            }
 
-            return writer.toString();
+            current.template.merge(context, new StringBuilderWriter(out));
         } catch (Exception e) {
-            // Handle invalid template: return raw message
-            return message;
+            // Handle rendering failure: discard partial output, return raw message
+            out.setLength(start);
+            out.append(message);
+        } finally {
+            JFR.endFormat(formatting, current.source);
         }
     }
 
+    /**
+     * Only patterns that reference $e render the throwable themselves; otherwise
+     * appenders such as ConsoleAppender print it after the formatted event.
+     */
     @Override
     public boolean ignoresThrowable() {
-        return true;
+        ParsedTemplate current = parsedTemplate();
+        return current == null || !current.rendersThrowable;
     }
 
     @Override
@@ -83,4 +131,89 @@ public class VelocityLayout extends Layout {
     public void setPattern(String pattern) {
         this.template = pattern;
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the parsed template for the current pattern, parsing it on first use
+     * after the pattern changed. Returns null if there is no pattern.
+     */
+    private ParsedTemplate parsedTemplate() {
+        String source = template;
+        if (source == null) {
+            return null;
+        }
+        ParsedTemplate current = parsed;
+        if (current == null || current.source != source) {
+            current = new ParsedTemplate(source);
+            parsed = current;
+        }
+        return current;
+    }
+
+    /**
+     * A pattern together with its parsed Velocity template. Velocity templates are
+     * safe to merge from several threads once initialized.
+     */
+    private static final class ParsedTemplate {
+        final String source;
+        final Template template; // null if the pattern does not parse
+        final boolean rendersThrowable;
+
+        ParsedTemplate(String source) {
+            this.source = source;
+            Object compile = JFR.beginTemplateCompile();
+            this.template = parse(source);
+            JFR.endTemplateCompile(compile, source, template != null);
+            this.rendersThrowable = THROWABLE_REFERENCE.matcher(source).find();
+        }
+
+        private static Template parse(String source) {
+            RuntimeInstance engine = EngineHolder.ENGINE;
+            String name = TEMPLATE_NAME + TEMPLATE_IDS.incrementAndGet();
+            try {
+                SimpleNode node = engine.parse(new StringReader(source), name);
+                Template parsedTemplate = new Template();
+                parsedTemplate.setName(name);
+                parsedTemplate.setRuntimeServices(engine);
+                parsedTemplate.setData(node);
+                parsedTemplate.initDocument();
+                return parsedTemplate;
+            } catch (Exception e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Writer that appends to a StringBuilder without any synchronization or copying.
+     */
+    private static final class StringBuilderWriter extends Writer {
+        private final StringBuilder out;
+
+        StringBuilderWriter(StringBuilder out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            out.append(cbuf, off, len);
+        }
+
+        @Override
+        public void write(int c) {
+            out.append((char) c);
+        }
+
+        @Override
+        public void write(String str, int off, int len) {
+            out.append(str, off, off + len);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package assign251_2;
+
+import org.apache.log4j.Layout;
+import org.apache.log4j.spi.ErrorCode;
+import org.apache.log4j.spi.ErrorHandler;
+import org.apache.log4j.spi.LoggingEvent;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Continuous write-behind persistence for MemAppender.
+ *
+ * A background thread follows the window with its own cursor (a sequence number, see
+ * MemAppender.appendSequence) and writes every newly appended event to a file.
+ * Each cycle drains all new events as one batch, which is formatted and written with
+ * a single FileChannel write, optionally followed by force() (group commit).
+ * The appending threads never touch the file; they only wake the writer once new
+ * events are pending. Events evicted or cleared from the window before the writer
+ * reached them are moved to a carry buffer and written first. When MAX_CARRIED
+ * events are waiting there, appending threads block until the writer catches up,
+ * so no event is dropped.
+ */
+final class WriteBehind {
+    static final int MAX_CARRIED = 16 * 1024;
+    // Only a safety net: appenders unpark the writer as soon as events are pending
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long CLOSE_TIMEOUT_MILLIS = 30_000;
+
+    /**
+     * Hands the writer its next batch; implemented by MemAppender under its lock.
+     */
+    interface Source {
+        Batch drain(WriteBehind writeBehind);
+    }
+
+    static final class Batch {
+        static final Batch EMPTY = new Batch(new LoggingEvent[0], null);
+
+        final LoggingEvent[] events;
+        final Layout layout;
+
+        Batch(LoggingEvent[] events, Layout layout) {
+            this.events = events;
+            this.layout = layout;
+        }
+    }
+
+    private final LogFileWriter writer;
+    private final boolean forceOnCommit;
+    private final Source source;
+    private final ErrorHandler errorHandler;
+    private final Thread thread;
+    private volatile boolean stopping = false;
+    private volatile boolean parked = false;
+    private volatile long persistedCount = 0;
+    // Events in batches that failed to write, or evicted after the writer stopped
+    private final AtomicLong lostCount = new AtomicLong();
+
+    // Guarded by MemAppender's lock
+    long cursor;
+    // Events evicted or cleared from the window before the writer reached them, oldest first
+    final List<LoggingEvent> carried = new ArrayList<>();
+
+    WriteBehind(LogFileWriter writer, boolean forceOnCommit, long startSequence, Source source, ErrorHandler errorHandler) {
+        this.writer = writer;
+        this.forceOnCommit = forceOnCommit;
+        this.cursor = startSequence;
+        this.source = source;
+        this.errorHandler = errorHandler;
+        this.thread = new Thread(this::run, "MemAppender-write-behind");
+        thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    /**
+     * Wakes the writer if it is idle. Cheap enough to call from append().
+     */
+    void wakeUp() {
+        if (parked) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    long getPersistedCount() {
+        return persistedCount;
+    }
+
+    long getLostCount() {
+        return lostCount.get();
+    }
+
+    void addLost(long count) {
+        lostCount.addAndGet(count);
+    }
+
+    boolean isRunning() {
+        return thread.isAlive();
+    }
+
+    /**
+     * Lets the writer persist everything it can still drain, then waits for it to
+     * exit and closes the file. The source must hand it no new events from now on.
+     */
+    void stop() {
+        stopping = true;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(CLOSE_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void run() {
+        while (true) {
+            // Announced before draining, so an event appended after the drain unparks us
+            parked = true;
+            Batch batch = source.drain(this);
+            if (batch.events.length > 0) {
+                parked = false;
+                commit(batch);
+            } else if (stopping) {
+                return;
+            } else {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    private void commit(Batch batch) {
+        try {
+            writer.write(batch.events, batch.layout);
+            if (forceOnCommit) {
+                writer.force();
+            }
+            persistedCount += batch.events.length; // single writer thread
+        } catch (IOException e) {
+            addLost(batch.events.length);
+            errorHandler.error("Failed to persist events to " + writer.getFile(), e, ErrorCode.WRITE_FAILURE);
+        } catch (RuntimeException e) {
+            // Typically the layout; the thread must survive it
+            addLost(batch.events.length);
+            errorHandler.error("Failed to format events for " + writer.getFile(), e, ErrorCode.GENERIC_FAILURE);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package assign251_2;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Emits MemAppender and VelocityLayout activity as custom JFR events.
+ * Compiled only on JDK 11+ (profile "jfr") and loaded by FlightRecorderHooks.
+ * Thresholds keep the per-event types quiet unless something is slow; they can be
+ * changed in a JFR settings file like any built-in event.
+ */
+final class JfrFlightRecorderHooks extends FlightRecorderHooks {
+    private static final EventType APPEND_LOCK = EventType.getEventType(AppendLockEvent.class);
+    private static final EventType EVICTION = EventType.getEventType(EvictionEvent.class);
+    private static final EventType DRAIN = EventType.getEventType(DrainEvent.class);
+    private static final EventType TEMPLATE_COMPILE = EventType.getEventType(TemplateCompileEvent.class);
+    private static final EventType FORMAT = EventType.getEventType(FormatEvent.class);
+
+    @Override
+    Object beginAppendLock() {
+        return begin(APPEND_LOCK.isEnabled() ? new AppendLockEvent() : null);
+    }
+
+    @Override
+    void endAppendLock(Object token) {
+        if (token != null) {
+            ((AppendLockEvent) token).commit();
+        }
+    }
+
+    @Override
+    Object beginEviction() {
+        return begin(EVICTION.isEnabled() ? new EvictionEvent() : null);
+    }
+
+    @Override
+    void endEviction(Object token, int eventCount) {
+        if (token != null) {
+            EvictionEvent event = (EvictionEvent) token;
+            event.eventCount = eventCount;
+            event.commit();
+        }
+    }
+
+    @Override
+    Object beginDrain() {
+        return begin(DRAIN.isEnabled() ? new DrainEvent() : null);
+    }
+
+    @Override
+    void endDrain(Object token, String operation, int eventCount) {
+        if (token != null) {
+            DrainEvent event = (DrainEvent) token;
+            event.operation = operation;
+            event.eventCount = eventCount;
+            event.commit();
+        }
+    }
+
+    @Override
+    Object beginTemplateCompile() {
+        return begin(TEMPLATE_COMPILE.isEnabled() ? new TemplateCompileEvent() : null);
+    }
+
+    @Override
+    void endTemplateCompile(Object token, String pattern, boolean valid) {
+        if (token != null) {
+            TemplateCompileEvent event = (TemplateCompileEvent) token;
+            event.pattern = pattern;
+            event.valid = valid;
+            event.commit();
+        }
+    }
+
+    @Override
+    Object beginFormat() {
+        return begin(FORMAT.isEnabled() ? new FormatEvent() : null);
+    }
+
+    @Override
+    void endFormat(Object token, String pattern) {
+        if (token != null) {
+            FormatEvent event = (FormatEvent) token;
+            event.pattern = pattern;
+            event.commit();
+        }
+    }
+
+    private static Event begin(Event event) {
+        if (event != null) {
+            event.begin();
+        }
+        return event;
+    }
+
+    @Name("assign251_2.AppendLock")
+    // Logging threads first queue on AppenderSkeleton.doAppend's monitor, so waits
+    // between them appear as jdk.JavaMonitorEnter, not here
+    @Label("MemAppender Window Lock Wait")
+    @Description("Time append() waited for the window lock while a reader, drain, resize or write-behind "
+            + "drain held it; contention between logging threads is reported by jdk.JavaMonitorEnter")
+    @Category({"Logging", "MemAppender"})
+    @Threshold("1 ms")
+    static final class AppendLockEvent extends Event {
+    }
+
+    @Name("assign251_2.Eviction")
+    @Label("MemAppender Bulk Eviction")
+    @Description("Several events evicted at once, e.g. after maxSize was reduced")
+    @Category({"Logging", "MemAppender"})
+    @StackTrace(false)
+    static final class EvictionEvent extends Event {
+        @Label("Event Count")
+        int eventCount;
+    }
+
+    @Name("assign251_2.Drain")
+    @Label("MemAppender Drain")
+    @Description("The whole cache formatted or printed")
+    @Category({"Logging", "MemAppender"})
+    static final class DrainEvent extends Event {
+        @Label("Operation")
+        String operation;
+
+        @Label("Event Count")
+        int eventCount;
+    }
+
+    @Name("assign251_2.TemplateCompile")
+    @Label("VelocityLayout Template Compile")
+    @Description("A VelocityLayout pattern parsed into a template")
+    @Category({"Logging", "VelocityLayout"})
+    @StackTrace(false)
+    static final class TemplateCompileEvent extends Event {
+        @Label("Pattern")
+        String pattern;
+
+        @Label("Valid")
+        boolean valid;
+    }
+
+    @Name("assign251_2.Format")
+    @Label("VelocityLayout Format")
+    @Description("One event formatted by VelocityLayout")
+    @Category({"Logging", "VelocityLayout"})
+    @Threshold("1 ms")
+    @StackTrace(false)
+    static final class FormatEvent extends Event {
+        @Label("Pattern")
+        String pattern;
+    }
+}
@@ -0,0 +1,79 @@
+package assign251_2;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.spi.LoggingEvent;
+import org.junit.jupiter.api.Test;
+
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AppendStatisticsTest {
+
+    private final AtomicLong clock = new AtomicLong(0);
+    private final AppendStatistics statistics = new AppendStatistics(clock::get);
+
+    private LoggingEvent event(String loggerName, Level level) {
+        return new LoggingEvent("c", Logger.getLogger(loggerName), level, "msg", null);
+    }
+
+    @Test
+    void testCountsPerLevelAndLogger() {
+        statistics.record(event("a", Level.INFO));
+        statistics.record(event("a", Level.ERROR));
+        statistics.record(event("b", Level.ERROR));
+
+        assertEquals(3, statistics.getTotal());
+        assertEquals(1, statistics.getLevelCount(Level.INFO));
+        assertEquals(2, statistics.getLevelCount(Level.ERROR));
+
+        CompositeData levels = statistics.levelCounts();
+        assertEquals(2L, levels.get("ERROR"));
+        assertEquals(0L, levels.get("DEBUG"));
+
+        TabularData loggers = statistics.loggerCounts();
+        assertEquals(2L, loggers.get(new Object[]{"a"}).get("count"));
+        assertEquals(1L, loggers.get(new Object[]{"b"}).get("count"));
+    }
+
+    @Test
+    void testLoggerMapIsBounded() {
+        for (int i = 0; i < AppendStatistics.MAX_LOGGERS + 50; i++) {
+            statistics.record(event("bounded-" + i, Level.DEBUG));
+        }
+        TabularData loggers = statistics.loggerCounts();
+        assertTrue(loggers.size() <= AppendStatistics.MAX_LOGGERS + 1);
+        assertTrue((Long) loggers.get(new Object[]{AppendStatistics.OTHER_LOGGERS}).get("count") >= 50);
+    }
+
+    @Test
+    void testEwmaRates() {
+        // 500 events in the first 5-second interval = 100 events/s
+        for (int i = 0; i < 500; i++) {
+            statistics.record(event("rate", Level.INFO));
+        }
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(5) + 1);
+        assertEquals(100.0, statistics.getOneMinuteRate(), 0.001);
+        assertEquals(100.0, statistics.getFifteenMinuteRate(), 0.001);
+
+        // A quiet minute decays the 1-minute rate much faster than the 15-minute rate
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(1));
+        double oneMinute = statistics.getOneMinuteRate();
+        double fifteenMinute = statistics.getFifteenMinuteRate();
+        assertEquals(100.0 / Math.E, oneMinute, 1.0);
+        assertTrue(fifteenMinute > 90.0);
+    }
+
+    @Test
+    void testReset() {
+        statistics.record(event("a", Level.WARN));
+        statistics.reset();
+        assertEquals(0, statistics.getTotal());
+        assertEquals(0, statistics.getLevelCount(Level.WARN));
+        assertTrue(statistics.loggerCounts().isEmpty());
+    }
+}
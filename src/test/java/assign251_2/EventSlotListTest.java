@@ -0,0 +1,121 @@
+package assign251_2;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.SimpleLayout;
+import org.apache.log4j.spi.LoggingEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class EventSlotListTest {
+
+    private final Logger logger = Logger.getLogger("SlotLogger");
+
+    @AfterEach
+    void tearDown() {
+        MemAppender.resetInstance();
+    }
+
+    @Test
+    void testAddGetAndRemoveFirst() {
+        EventSlotList list = new EventSlotList(2);
+        for (int i = 0; i < 5; i++) {
+            list.add(new LoggingEvent("c", logger, 1000L + i, Level.WARN, "Msg " + i, null));
+        }
+        assertEquals(5, list.size());
+        assertTrue(list.capacity() >= 5, "List should grow beyond its initial capacity");
+
+        list.removeFirst(2);
+        assertEquals(3, list.size());
+        LoggingEvent first = list.get(0);
+        assertEquals("Msg 2", first.getRenderedMessage());
+        assertEquals(1002L, first.getTimeStamp());
+        assertEquals(Level.WARN, first.getLevel());
+        assertEquals("SlotLogger", first.getLoggerName());
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(3));
+    }
+
+    @Test
+    void testSlotsAreReusedAsRing() {
+        EventSlotList list = new EventSlotList(3);
+        for (int i = 0; i < 10; i++) {
+            if (list.size() == 3) {
+                list.removeFirst(1);
+            }
+            list.add(new LoggingEvent("c", logger, Level.INFO, "Msg " + i, null));
+        }
+        assertEquals(3, list.capacity(), "Ring should not grow when used with removeFirst");
+        assertEquals("Msg 7", list.get(0).getRenderedMessage());
+        assertEquals("Msg 9", list.get(2).getRenderedMessage());
+    }
+
+    @Test
+    void testRemoveFromMiddle() {
+        EventSlotList list = new EventSlotList(4);
+        for (int i = 0; i < 4; i++) {
+            list.add(new LoggingEvent("c", logger, Level.INFO, "Msg " + i, null));
+        }
+        assertEquals("Msg 1", list.remove(1).getRenderedMessage());
+        assertEquals(3, list.size());
+        assertEquals("Msg 2", list.get(1).getRenderedMessage());
+        assertEquals("Msg 3", list.get(2).getRenderedMessage());
+    }
+
+    @Test
+    void testKeepsThrowableAndNullMessage() {
+        EventSlotList list = new EventSlotList(2);
+        LoggingEvent withThrowable = new LoggingEvent("c", logger, Level.ERROR, "Failed", new RuntimeException("boom"));
+        list.add(withThrowable);
+        list.add(new LoggingEvent("c", logger, Level.INFO, null, null));
+
+        assertArrayEquals(withThrowable.getThrowableStrRep(), list.get(0).getThrowableStrRep());
+        assertNull(list.get(1).getRenderedMessage());
+    }
+
+    @Test
+    void testWorksAsMemAppenderStorage() {
+        MemAppender appender = MemAppender.getInstance(new EventSlotList(3));
+        appender.setMaxSize(3);
+        appender.setLayout(new SimpleLayout());
+        for (int i = 0; i < 5; i++) {
+            appender.append(new LoggingEvent("c", logger, Level.INFO, "Msg " + i, null));
+        }
+
+        List<String> strings = appender.getEventStrings();
+        assertEquals(3, strings.size());
+        assertEquals("INFO - Msg 2" + System.lineSeparator(), strings.get(0));
+        assertEquals(2, appender.getDiscardedLogCount());
+    }
+
+    @Test
+    void testSteadyStateAppendDoesNotAllocate() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        assumeTrue(threads instanceof com.sun.management.ThreadMXBean, "Allocation counters unavailable");
+        com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+        assumeTrue(allocations.isThreadAllocatedMemorySupported() && allocations.isThreadAllocatedMemoryEnabled());
+
+        MemAppender appender = MemAppender.getInstance(new EventSlotList(1000));
+        appender.setMaxSize(1000);
+        LoggingEvent event = new LoggingEvent("c", logger, Level.INFO, "A reasonably long steady state message", null);
+
+        // Warm up: fill every slot and let the JIT compile the append path
+        for (int i = 0; i < 200_000; i++) {
+            appender.append(event);
+        }
+        long threadId = Thread.currentThread().getId();
+        long before = allocations.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 100_000; i++) {
+            appender.append(event);
+        }
+        long allocated = allocations.getThreadAllocatedBytes(threadId) - before;
+
+        assertTrue(allocated < 100_000, "Expected (almost) no allocation per append, got " + allocated + " bytes");
+    }
+}
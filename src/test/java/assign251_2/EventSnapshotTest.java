@@ -0,0 +1,159 @@
+package assign251_2;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.SimpleLayout;
+import org.apache.log4j.spi.LoggingEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventSnapshotTest {
+
+    @TempDir
+    Path tempDir;
+
+    private MemAppender appender;
+
+    @BeforeEach
+    void setUp() {
+        MemAppender.resetInstance();
+        appender = MemAppender.getInstance();
+        appender.reset();
+        appender.setMaxSize(100);
+        appender.setLayout(new SimpleLayout());
+    }
+
+    @Test
+    void testRoundTrip() throws IOException {
+        Logger logger = Logger.getLogger("SnapshotLogger");
+        long now = System.currentTimeMillis();
+        LoggingEvent[] events = {
+                new LoggingEvent("c", logger, now, Level.INFO, "First", null),
+                new LoggingEvent("c", logger, now - 5, Level.ERROR, "Earlier timestamp",
+                        new IllegalStateException("boom")),
+                new LoggingEvent("c", Logger.getLogger("Other"), now + 1000, Level.DEBUG, "Ünïcødé ✓", null)
+        };
+        Path file = tempDir.resolve("events.bin");
+
+        assertEquals(3, EventSnapshot.write(events, file));
+        List<LoggingEvent> read = EventSnapshot.read(file);
+
+        assertEquals(3, read.size());
+        for (int i = 0; i < events.length; i++) {
+            assertEquals(events[i].getLoggerName(), read.get(i).getLoggerName());
+            assertEquals(events[i].getLevel(), read.get(i).getLevel());
+            assertEquals(events[i].getTimeStamp(), read.get(i).getTimeStamp());
+            assertEquals(events[i].getThreadName(), read.get(i).getThreadName());
+            assertEquals(events[i].getRenderedMessage(), read.get(i).getRenderedMessage());
+        }
+        assertNull(read.get(0).getThrowableStrRep());
+        assertArrayEquals(events[1].getThrowableStrRep(), read.get(1).getThrowableStrRep());
+    }
+
+    @Test
+    void testCustomLevelRoundTrip() throws IOException {
+        Level notice = new Level(Level.INFO_INT + 5000, "NOTICE", 5) {};
+        LoggingEvent[] events = {
+                new LoggingEvent("c", Logger.getLogger("SnapshotLogger"), 0L, notice, "Custom", null)
+        };
+        Path file = tempDir.resolve("custom.bin");
+
+        EventSnapshot.write(events, file);
+        LoggingEvent read = EventSnapshot.read(file).get(0);
+
+        assertEquals(notice.toInt(), read.getLevel().toInt());
+        assertEquals("NOTICE", read.getLevel().toString());
+    }
+
+    @Test
+    void testExportAndImportThroughAppender() throws IOException {
+        Logger logger = Logger.getLogger("SnapshotLogger");
+        for (int i = 0; i < 50; i++) {
+            appender.append(new LoggingEvent("c", logger, Level.INFO, "Msg " + i, null));
+        }
+        Path file = tempDir.resolve("appender.bin");
+        List<String> before = appender.getEventStrings();
+
+        assertEquals(50, appender.exportSnapshot(file.toString()));
+        appender.reset();
+        assertEquals(50, appender.importSnapshot(file.toString()));
+
+        assertEquals(before, appender.getEventStrings());
+    }
+
+    @Test
+    void testLargeSnapshotSpansChunks() throws IOException {
+        Logger logger = Logger.getLogger("SnapshotLogger");
+        StringBuilder message = new StringBuilder();
+        while (message.length() < 1000) {
+            message.append("abcdefghij");
+        }
+        LoggingEvent[] events = new LoggingEvent[20000];
+        for (int i = 0; i < events.length; i++) {
+            events[i] = new LoggingEvent("c", logger, 1_700_000_000_000L + i, Level.INFO, message + "-" + i, null);
+        }
+        Path file = tempDir.resolve("large.bin");
+
+        EventSnapshot.write(events, file);
+        List<LoggingEvent> read = EventSnapshot.read(file);
+
+        assertEquals(events.length, read.size());
+        assertEquals(events[19999].getRenderedMessage(), read.get(19999).getRenderedMessage());
+        assertEquals(events[19999].getTimeStamp(), read.get(19999).getTimeStamp());
+        // Per event: ~1006 message bytes plus a handful of varint bytes
+        assertTrue(Files.size(file) < events.length * 1020L, "Snapshot should add little overhead");
+    }
+
+    @Test
+    void testRejectsForeignFile() throws IOException {
+        Path file = tempDir.resolve("foreign.bin");
+        Files.write(file, new byte[]{1, 2, 3, 4, 5});
+        assertThrows(IOException.class, () -> EventSnapshot.read(file));
+    }
+
+    @Test
+    void testImportDoesNotActLikeNewEvents() throws IOException {
+        Logger logger = Logger.getLogger("SnapshotLogger");
+        LoggingEvent[] history = new LoggingEvent[150];
+        for (int i = 0; i < history.length; i++) {
+            Level level = i % 10 == 0 ? Level.ERROR : Level.INFO;
+            history[i] = new LoggingEvent("c", logger, 1_700_000_000_000L + i, level, "Old " + i, null);
+        }
+        Path file = tempDir.resolve("history.bin");
+        EventSnapshot.write(history, file);
+
+        appender.append(new LoggingEvent("c", logger, Level.INFO, "Live", null));
+        Path dumpFile = tempDir.resolve("dump.log");
+        appender.enableTriggeredDump(Level.ERROR, dumpFile.toString(), 0, 0);
+        appender.setIndexEnabled(true);
+        LogSubscription subscription = appender.subscribe(1000);
+        Path persistFile = tempDir.resolve("persist.log");
+        appender.enableWriteBehind(persistFile.toString(), 0, 0, false);
+
+        assertEquals(150, appender.importSnapshot(file.toString()));
+        appender.append(new LoggingEvent("c", logger, Level.INFO, "Live after import", null));
+
+        // maxSize and the index apply as usual
+        assertEquals(100, appender.getCurrentLogs().size());
+        assertEquals("Old 51", appender.getCurrentLogs().get(0).getRenderedMessage());
+        assertEquals(52, appender.getDiscardedLogCount());
+        assertEquals(1, appender.search("old 140").size());
+        // Nothing else sees the imported events
+        assertEquals(0, appender.getDumpTriggerCount());
+        assertEquals(1, subscription.getPendingCount());
+        assertEquals(2, appender.getAppendedCount());
+        appender.disableTriggeredDump();
+        assertFalse(Files.exists(dumpFile));
+        appender.disableWriteBehind();
+        assertEquals(Arrays.asList("INFO - Live after import"), Files.readAllLines(persistFile));
+    }
+}
@@ -0,0 +1,56 @@
+package assign251_2;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+class FlightRecorderHooksTest {
+
+    private final FlightRecorderHooks hooks = FlightRecorderHooks.INSTANCE;
+
+    @Test
+    void testJfrHooksLoadedOnJava11() {
+        // The jfr profile is active whenever the build runs on JDK 11+
+        boolean java8 = System.getProperty("java.specification.version").startsWith("1.");
+        assertEquals(java8 ? "FlightRecorderHooks" : "JfrFlightRecorderHooks",
+                hooks.getClass().getSimpleName());
+    }
+
+    @Test
+    void testDisabledEventsReturnNoToken() throws Exception {
+        // Without a recording every event type is disabled; -Dtest.jvmArgs may start one
+        assumeFalse(recordingActive(), "A JFR recording is running");
+        assertNull(hooks.beginAppendLock());
+        assertNull(hooks.beginEviction());
+        assertNull(hooks.beginDrain());
+        assertNull(hooks.beginTemplateCompile());
+        assertNull(hooks.beginFormat());
+        // End methods accept the null token
+        hooks.endAppendLock(null);
+        hooks.endEviction(null, 1);
+        hooks.endDrain(null, "printLogs", 1);
+        hooks.endTemplateCompile(null, "$m", true);
+        hooks.endFormat(null, "$m");
+    }
+
+    /**
+     * Looked up reflectively: the tests are compiled for Java 8, where jdk.jfr may be missing.
+     */
+    private static boolean recordingActive() throws Exception {
+        Class<?> flightRecorder;
+        try {
+            flightRecorder = Class.forName("jdk.jfr.FlightRecorder");
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+        // Checked first so the test does not initialize JFR itself
+        if (!(Boolean) flightRecorder.getMethod("isInitialized").invoke(null)) {
+            return false;
+        }
+        Object recorder = flightRecorder.getMethod("getFlightRecorder").invoke(null);
+        return !((List<?>) flightRecorder.getMethod("getRecordings").invoke(recorder)).isEmpty();
+    }
+}
@@ -66,4 +66,32 @@ class IntegrationTest {
         assertEquals(1, strings.size());
         assertEquals("ERROR - Pattern layout works" + System.lineSeparator(), strings.get(0));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testMemAppenderWithJsonLayout() {
+        MemAppender memAppender = MemAppender.getInstance();
+        memAppender.setLayout(new JsonLayout());
+
+        Logger logger = Logger.getLogger("JsonTest");
+        logger.addAppender(memAppender);
+
+        logger.warn("JSON \"layout\" works");
+
+        List<String> strings = memAppender.getEventStrings();
+        assertEquals(1, strings.size());
+        assertTrue(strings.get(0).startsWith("{\"c\":\"JsonTest\",\"d\":"));
+        assertTrue(strings.get(0).endsWith(",\"m\":\"JSON \\\"layout\\\" works\",\"p\":\"WARN\",\"t\":\""
+                + Thread.currentThread().getName() + "\"}" + System.lineSeparator()));
+    }
+
+    @Test
+    void testJsonLayoutWithConsoleAppender() {
+        ConsoleAppender consoleAppender = new ConsoleAppender(new JsonLayout());
+
+        Logger logger = Logger.getRootLogger();
+        logger.addAppender(consoleAppender);
+
+        logger.info("JSON on console if run manually");
+        // No assertions here, just ensuring no exceptions when used with standard appender
+    }
+}
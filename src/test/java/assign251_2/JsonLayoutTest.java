@@ -0,0 +1,84 @@
+package assign251_2;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.spi.LoggingEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonLayoutTest {
+
+    private final JsonLayout layout = new JsonLayout();
+    private final Logger logger = Logger.getLogger("JsonLogger");
+
+    private LoggingEvent event(String message) {
+        return new LoggingEvent("c", logger, 1700000000123L, Level.WARN, message, null);
+    }
+
+    @Test
+    void testFormatFields() {
+        String expected = "{\"c\":\"JsonLogger\",\"d\":1700000000123,\"m\":\"Hello JSON\",\"p\":\"WARN\",\"t\":\""
+                + Thread.currentThread().getName() + "\"}" + System.lineSeparator();
+        assertEquals(expected, layout.format(event("Hello JSON")));
+    }
+
+    @Test
+    void testEscaping() {
+        String formatted = layout.format(event("quote \" backslash \\ newline \n tab \t bell \u0007 sep \u2028"));
+        assertTrue(formatted.contains(
+                "\"m\":\"quote \\\" backslash \\\\ newline \\n tab \\t bell \\u0007 sep \\u2028\""), formatted);
+    }
+
+    @Test
+    void testSurrogates() {
+        // A valid pair is kept, a lone surrogate is escaped so the output stays valid UTF-8
+        String formatted = layout.format(event("emoji \uD83D\uDE00 broken \uD800!"));
+        assertTrue(formatted.contains("\"m\":\"emoji \uD83D\uDE00 broken \\ud800!\""), formatted);
+    }
+
+    @Test
+    void testNullMessage() {
+        assertTrue(layout.format(event(null)).contains("\"m\":null"));
+    }
+
+    @Test
+    void testThrowableField() {
+        LoggingEvent event = new LoggingEvent("c", logger, Level.ERROR, "failed",
+                new IllegalStateException("bad \"state\""));
+        String formatted = layout.format(event);
+
+        assertFalse(layout.ignoresThrowable(), "The stack trace is part of the JSON");
+        assertTrue(formatted.contains(",\"e\":\"java.lang.IllegalStateException: bad \\\"state\\\"\\n\\tat "));
+        assertTrue(formatted.endsWith("\"}" + System.lineSeparator()));
+        assertEquals(1, formatted.split("\n").length, "One event per line");
+    }
+
+    @Test
+    void testStreamingFormatMatchesFormat() {
+        LoggingEvent event = event("streamed");
+        StringBuilder out = new StringBuilder("prefix:");
+        layout.format(event, out);
+        assertEquals("prefix:" + layout.format(event), out.toString());
+    }
+
+    @Test
+    void testConcurrentFormatting() {
+        List<String> expected = IntStream.range(0, 2000)
+                .mapToObj(i -> layout.format(event("message " + i)))
+                .collect(Collectors.toList());
+        List<String> parallel = IntStream.range(0, 2000).parallel()
+                .mapToObj(i -> layout.format(event("message " + i)))
+                .collect(Collectors.toList());
+        assertEquals(expected.size(), parallel.size());
+        for (int i = 0; i < expected.size(); i++) {
+            // The thread name differs between worker threads, the rest must not
+            assertEquals(expected.get(i).substring(0, expected.get(i).indexOf(",\"t\":")),
+                    parallel.get(i).substring(0, parallel.get(i).indexOf(",\"t\":")));
+        }
+    }
+}
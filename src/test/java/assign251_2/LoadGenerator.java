@@ -0,0 +1,447 @@
+package assign251_2;
+
+import org.apache.log4j.Layout;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.PatternLayout;
+import org.apache.log4j.SimpleLayout;
+import org.apache.log4j.spi.LoggingEvent;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Reproducible load generator for MemAppender, driven by scenario files.
+ *
+ * Closed model: each thread logs its share of the events back to back, and latency
+ * is the duration of each call. Open model: events are scheduled at a fixed arrival
+ * rate, and latency is measured from each event's intended start time, so time spent
+ * waiting behind a stalled call is counted (no coordinated omission).
+ *
+ * Results are printed as an aligned table and written as CSV and JSON.
+ * Run from the command line with scenario files or directories as arguments, or
+ * through StressTest.
+ */
+final class LoadGenerator {
+    static final Path DEFAULT_SCENARIOS = Paths.get("src/test/resources/scenarios");
+    static final Path DEFAULT_OUTPUT = Paths.get("target/load-results");
+    private static final int DISTINCT_MESSAGES = 1024;
+
+    private LoadGenerator() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<Path> inputs = new ArrayList<>();
+        for (String arg : args) {
+            inputs.add(Paths.get(arg));
+        }
+        if (inputs.isEmpty()) {
+            inputs.add(DEFAULT_SCENARIOS);
+        }
+        runAll(loadScenarios(inputs), DEFAULT_OUTPUT);
+    }
+
+    /**
+     * Runs the scenarios in order and writes results.csv and results.json to outputDir.
+     */
+    static List<Result> runAll(List<Scenario> scenarios, Path outputDir) throws IOException, InterruptedException {
+        List<Result> results = new ArrayList<>();
+        System.out.println(Result.tableHeader());
+        for (Scenario scenario : scenarios) {
+            Result result = run(scenario);
+            System.out.println(result.tableRow());
+            results.add(result);
+        }
+        Files.createDirectories(outputDir);
+        writeCsv(results, outputDir.resolve("results.csv"));
+        writeJson(results, outputDir.resolve("results.json"));
+        return results;
+    }
+
+    static List<Scenario> loadScenarios(List<Path> inputs) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (Path input : inputs) {
+            if (Files.isDirectory(input)) {
+                try (DirectoryStream<Path> dir = Files.newDirectoryStream(input, "*.properties")) {
+                    dir.forEach(files::add);
+                }
+            } else {
+                files.add(input);
+            }
+        }
+        files.sort(null); // run in a stable order
+        List<Scenario> scenarios = new ArrayList<>();
+        for (Path file : files) {
+            scenarios.add(Scenario.load(file));
+        }
+        return scenarios;
+    }
+
+    static Result run(Scenario scenario) throws InterruptedException {
+        MemAppender.resetInstance();
+        MemAppender appender = MemAppender.getInstance(scenario.createStorage());
+        appender.setMaxSize(scenario.maxSize);
+        appender.setLayout(scenario.createLayout());
+        Logger logger = Logger.getLogger("Load-" + scenario.name);
+        logger.removeAllAppenders();
+        logger.setAdditivity(false);
+        logger.addAppender(appender);
+        logger.setLevel(Level.INFO);
+
+        String[] messages = messages(scenario.messageSize);
+        if (scenario.warmupEvents > 0) {
+            runPhase(scenario.warmup(), logger, messages);
+            appender.reset();
+        }
+
+        long gcCountBefore = gcCount();
+        long gcTimeBefore = gcTimeMillis();
+        Phase phase = runPhase(scenario, logger, messages);
+        long gcCount = gcCount() - gcCountBefore;
+        long gcTime = gcTimeMillis() - gcTimeBefore;
+
+        // Formatting happens on drain, so the layout's cost shows up here
+        long drainStart = System.nanoTime();
+        appender.getEventStrings();
+        long drainNanos = System.nanoTime() - drainStart;
+
+        Result result = new Result(scenario, phase, gcCount, gcTime, drainNanos, appender.getDiscardedLogCount());
+        logger.removeAllAppenders();
+        MemAppender.resetInstance();
+        return result;
+    }
+
+    private static Phase runPhase(Scenario scenario, Logger logger, String[] messages) throws InterruptedException {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        com.sun.management.ThreadMXBean allocations = threads instanceof com.sun.management.ThreadMXBean
+                ? (com.sun.management.ThreadMXBean) threads : null;
+
+        LatencyHistogram[] histograms = new LatencyHistogram[scenario.threads];
+        long[] allocated = new long[scenario.threads];
+        CountDownLatch ready = new CountDownLatch(scenario.threads);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(scenario.threads);
+        long periodNanos = scenario.model == Scenario.Model.OPEN ? 1_000_000_000L / scenario.ratePerSecond : 0;
+        long[] startNanos = new long[1];
+
+        for (int t = 0; t < scenario.threads; t++) {
+            final int threadIndex = t;
+            Thread worker = new Thread(() -> {
+                LatencyHistogram histogram = new LatencyHistogram();
+                histograms[threadIndex] = histogram;
+                long threadId = Thread.currentThread().getId();
+                ready.countDown();
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                long allocatedBefore = allocations == null ? 0 : allocations.getThreadAllocatedBytes(threadId);
+                // Event k belongs to thread k % threads; in the open model it is due at start + k * period
+                for (int k = threadIndex; k < scenario.events; k += scenario.threads) {
+                    String message = messages[k % messages.length];
+                    if (periodNanos > 0) {
+                        long intended = startNanos[0] + k * periodNanos;
+                        long wait;
+                        // Parking may overshoot the deadline; that delay is part of the measured latency
+                        while ((wait = intended - System.nanoTime()) > 0) {
+                            LockSupport.parkNanos(wait);
+                        }
+                        logger.info(message);
+                        histogram.record(System.nanoTime() - intended);
+                    } else {
+                        long before = System.nanoTime();
+                        logger.info(message);
+                        histogram.record(System.nanoTime() - before);
+                    }
+                }
+                allocated[threadIndex] = allocations == null ? 0
+                        : allocations.getThreadAllocatedBytes(threadId) - allocatedBefore;
+                done.countDown();
+            }, "load-" + scenario.name + "-" + t);
+            worker.setDaemon(true);
+            worker.start();
+        }
+
+        ready.await();
+        startNanos[0] = System.nanoTime();
+        start.countDown();
+        done.await();
+        long elapsedNanos = System.nanoTime() - startNanos[0];
+
+        LatencyHistogram merged = new LatencyHistogram();
+        long allocatedBytes = 0;
+        for (int t = 0; t < scenario.threads; t++) {
+            merged.add(histograms[t]);
+            allocatedBytes += allocated[t];
+        }
+        return new Phase(merged, elapsedNanos, allocatedBytes);
+    }
+
+    private static String[] messages(int size) {
+        String[] messages = new String[DISTINCT_MESSAGES];
+        for (int i = 0; i < messages.length; i++) {
+            StringBuilder sb = new StringBuilder(size).append("load-").append(i).append('-');
+            while (sb.length() < size) {
+                sb.append("abcdefghijklmnopqrstuvwxyz0123456789");
+            }
+            messages[i] = sb.substring(0, size);
+        }
+        return messages;
+    }
+
+    private static long gcCount() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionCount());
+        }
+        return total;
+    }
+
+    private static long gcTimeMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+
+    private static void writeCsv(List<Result> results, Path file) throws IOException {
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write(String.join(",", Result.FIELDS));
+            out.write('\n');
+            for (Result result : results) {
+                Object[] values = result.values();
+                for (int i = 0; i < values.length; i++) {
+                    if (i > 0) {
+                        out.write(',');
+                    }
+                    out.write(String.valueOf(values[i]));
+                }
+                out.write('\n');
+            }
+        }
+    }
+
+    private static void writeJson(List<Result> results, Path file) throws IOException {
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("[\n");
+            for (int r = 0; r < results.size(); r++) {
+                Object[] values = results.get(r).values();
+                out.write("  {");
+                for (int i = 0; i < values.length; i++) {
+                    if (i > 0) {
+                        out.write(", ");
+                    }
+                    out.write('"' + Result.FIELDS[i] + "\": ");
+                    out.write(values[i] instanceof String ? jsonString((String) values[i]) : String.valueOf(values[i]));
+                }
+                out.write(r + 1 < results.size() ? "},\n" : "}\n");
+            }
+            out.write("]\n");
+        }
+    }
+
+    // Scenario names come from .properties files and may contain anything
+    private static String jsonString(String s) {
+        StringBuilder quoted = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20) {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    /**
+     * One load scenario, read from a .properties file.
+     */
+    static final class Scenario {
+        enum Model { OPEN, CLOSED }
+
+        final String name;
+        final Model model;
+        final int threads;
+        final int events;
+        final int warmupEvents;
+        final long ratePerSecond;
+        final int messageSize;
+        final int maxSize;
+        final String layout;
+        final String storage;
+
+        Scenario(String name, Model model, int threads, int events, int warmupEvents, long ratePerSecond,
+                 int messageSize, int maxSize, String layout, String storage) {
+            if (threads < 1 || events < 1 || messageSize < 1 || maxSize < 1) {
+                throw new IllegalArgumentException("Scenario " + name + ": counts and sizes must be positive");
+            }
+            if (model == Model.OPEN && (ratePerSecond < 1 || ratePerSecond > 1_000_000_000L)) {
+                throw new IllegalArgumentException("Scenario " + name + ": open model needs a ratePerSecond");
+            }
+            this.name = name;
+            this.model = model;
+            this.threads = threads;
+            this.events = events;
+            this.warmupEvents = warmupEvents;
+            this.ratePerSecond = ratePerSecond;
+            this.messageSize = messageSize;
+            this.maxSize = maxSize;
+            this.layout = layout;
+            this.storage = storage;
+        }
+
+        static Scenario load(Path file) throws IOException {
+            Properties props = new Properties();
+            try (InputStream in = Files.newInputStream(file)) {
+                props.load(in);
+            }
+            String defaultName = file.getFileName().toString().replaceFirst("\\.properties$", "");
+            return new Scenario(
+                    props.getProperty("name", defaultName),
+                    Model.valueOf(props.getProperty("model", "closed").trim().toUpperCase(Locale.ROOT)),
+                    Integer.parseInt(props.getProperty("threads", "4").trim()),
+                    Integer.parseInt(props.getProperty("events", "100000").trim()),
+                    Integer.parseInt(props.getProperty("warmupEvents", "20000").trim()),
+                    Long.parseLong(props.getProperty("ratePerSecond", "0").trim()),
+                    Integer.parseInt(props.getProperty("messageSize", "100").trim()),
+                    Integer.parseInt(props.getProperty("maxSize", "10000").trim()),
+                    props.getProperty("layout", "simple").trim(),
+                    props.getProperty("storage", "arraylist").trim());
+        }
+
+        Scenario warmup() {
+            // Warm up closed-model: the point is JIT compilation, not the arrival pattern
+            return new Scenario(name + "-warmup", Model.CLOSED, threads, warmupEvents, 0, 0,
+                    messageSize, maxSize, layout, storage);
+        }
+
+        Layout createLayout() {
+            switch (layout.toLowerCase(Locale.ROOT)) {
+                case "simple":
+                    return new SimpleLayout();
+                case "pattern":
+                    return new PatternLayout("[%p] %c %d: %m%n");
+                case "velocity":
+                    return new VelocityLayout("[$p] $c $d: $m$n");
+                case "json":
+                    return new JsonLayout();
+                default:
+                    throw new IllegalArgumentException("Unknown layout: " + layout);
+            }
+        }
+
+        List<LoggingEvent> createStorage() {
+            switch (storage.toLowerCase(Locale.ROOT)) {
+                case "arraylist":
+                    return new ArrayList<>();
+                case "linkedlist":
+                    return new LinkedList<>();
+                case "slots":
+                    return new EventSlotList(maxSize);
+                default:
+                    throw new IllegalArgumentException("Unknown storage: " + storage);
+            }
+        }
+    }
+
+    private static final class Phase {
+        final LatencyHistogram latency;
+        final long elapsedNanos;
+        final long allocatedBytes;
+
+        Phase(LatencyHistogram latency, long elapsedNanos, long allocatedBytes) {
+            this.latency = latency;
+            this.elapsedNanos = elapsedNanos;
+            this.allocatedBytes = allocatedBytes;
+        }
+    }
+
+    /**
+     * Measurements for one scenario. Latencies are in microseconds.
+     */
+    static final class Result {
+        static final String[] FIELDS = {
+                "scenario", "model", "storage", "layout", "threads", "events", "maxSize", "messageSize",
+                "throughputPerSec", "p50Micros", "p90Micros", "p99Micros", "p999Micros", "maxMicros",
+                "allocBytesPerEvent", "allocMBPerSec", "gcCount", "gcTimeMs", "drainMs", "discarded"
+        };
+
+        final Scenario scenario;
+        final double throughput;
+        final double p50;
+        final double p90;
+        final double p99;
+        final double p999;
+        final double max;
+        final double allocBytesPerEvent;
+        final double allocMBPerSec;
+        final long gcCount;
+        final long gcTimeMs;
+        final double drainMs;
+        final long discarded;
+
+        Result(Scenario scenario, Phase phase, long gcCount, long gcTimeMs, long drainNanos, long discarded) {
+            double seconds = phase.elapsedNanos / 1e9;
+            this.scenario = scenario;
+            this.throughput = scenario.events / seconds;
+            this.p50 = phase.latency.getValueAtPercentile(50) / 1000.0;
+            this.p90 = phase.latency.getValueAtPercentile(90) / 1000.0;
+            this.p99 = phase.latency.getValueAtPercentile(99) / 1000.0;
+            this.p999 = phase.latency.getValueAtPercentile(99.9) / 1000.0;
+            this.max = phase.latency.getMaxValue() / 1000.0;
+            this.allocBytesPerEvent = (double) phase.allocatedBytes / scenario.events;
+            this.allocMBPerSec = phase.allocatedBytes / 1024.0 / 1024.0 / seconds;
+            this.gcCount = gcCount;
+            this.gcTimeMs = gcTimeMs;
+            this.drainMs = drainNanos / 1e6;
+            this.discarded = discarded;
+        }
+
+        Object[] values() {
+            return new Object[]{
+                    scenario.name, scenario.model.name().toLowerCase(Locale.ROOT), scenario.storage, scenario.layout,
+                    scenario.threads, scenario.events, scenario.maxSize, scenario.messageSize,
+                    round(throughput), round(p50), round(p90), round(p99), round(p999), round(max),
+                    round(allocBytesPerEvent), round(allocMBPerSec), gcCount, gcTimeMs, round(drainMs), discarded
+            };
+        }
+
+        static String tableHeader() {
+            return String.format(Locale.ROOT, "%-32s %-7s %-11s %-9s %12s %10s %10s %10s %10s %12s %8s %10s",
+                    "Scenario", "Model", "Storage", "Layout", "Events/s", "p50(us)", "p99(us)", "p99.9(us)",
+                    "Max(us)", "Alloc(B/ev)", "GC(ms)", "Drain(ms)");
+        }
+
+        String tableRow() {
+            return String.format(Locale.ROOT, "%-32s %-7s %-11s %-9s %12.0f %10.2f %10.2f %10.2f %10.2f %12.1f %8d %10.2f",
+                    scenario.name, scenario.model.name().toLowerCase(Locale.ROOT), scenario.storage, scenario.layout,
+                    throughput, p50, p99, p999, max, allocBytesPerEvent, gcTimeMs, drainMs);
+        }
+
+        private static double round(double value) {
+            return Math.round(value * 100.0) / 100.0;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package assign251_2;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.SimpleLayout;
+import org.apache.log4j.spi.LoggingEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogFileWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final Logger logger = Logger.getLogger("WriterLogger");
+
+    private LoggingEvent event(String message) {
+        return new LoggingEvent("c", logger, Level.INFO, message, null);
+    }
+
+    @Test
+    void testBatchesLargerThanBufferAndAppendsAcrossCalls() throws IOException {
+        Path file = tempDir.resolve("out.log");
+        LoggingEvent[] events = new LoggingEvent[100];
+        for (int i = 0; i < events.length; i++) {
+            events[i] = event("message " + i);
+        }
+        StringBuilder huge = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            huge.append('x');
+        }
+
+        // 64-byte buffer: many flushes per batch, and one event larger than the buffer
+        try (LogFileWriter writer = new LogFileWriter(file, 64)) {
+            writer.write(events, new SimpleLayout());
+            writer.write(new LoggingEvent[]{event(huge.toString()), event("last")}, new SimpleLayout());
+        }
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(102, lines.size());
+        assertEquals("INFO - message 0", lines.get(0));
+        assertEquals("INFO - message 99", lines.get(99));
+        assertEquals("INFO - " + huge, lines.get(100));
+        assertEquals("INFO - last", lines.get(101));
+    }
+
+    @Test
+    void testWritesMessageOnlyWithoutLayout() throws IOException {
+        Path file = tempDir.resolve("raw.log");
+        try (LogFileWriter writer = new LogFileWriter(file, 1024)) {
+            writer.write(new LoggingEvent[]{event("raw")}, null);
+        }
+        assertEquals("raw", Files.readAllLines(file).get(0));
+    }
+}
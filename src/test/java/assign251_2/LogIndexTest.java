@@ -0,0 +1,63 @@
+package assign251_2;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogIndexTest {
+
+    private final LogIndex index = new LogIndex();
+
+    @Test
+    void testTokenize() {
+        assertArrayEquals(new String[]{"request", "req-42", "failed", "ora-00942"},
+                LogIndex.tokenize("Request req-42 failed: ORA-00942, request"));
+        assertEquals(0, LogIndex.tokenize(null).length);
+        assertEquals(0, LogIndex.tokenize(" ,.; ").length);
+    }
+
+    @Test
+    void testPositionsIntersectAllTerms() {
+        index.add("user alice logged in");
+        index.add("user bob logged in");
+        index.add("alice logged out");
+
+        assertArrayEquals(new int[]{0, 2}, index.positions(new String[]{"alice"}));
+        assertArrayEquals(new int[]{0, 1}, index.positions(new String[]{"user", "in"}));
+        assertArrayEquals(new int[]{1}, index.positions(new String[]{"bob", "logged"}));
+        assertEquals(0, index.positions(new String[]{"bob", "out"}).length);
+        assertEquals(0, index.positions(new String[]{"carol"}).length);
+    }
+
+    @Test
+    void testRemoveOldestShiftsPositions() {
+        for (int i = 0; i < 100; i++) {
+            index.add("event " + i + (i % 10 == 0 ? " marker" : ""));
+        }
+
+        index.removeOldest(35);
+
+        assertEquals(65, index.size());
+        // Markers at 40, 50, ..., 90 are now at window positions 5, 15, ..., 55
+        assertArrayEquals(new int[]{5, 15, 25, 35, 45, 55}, index.positions(new String[]{"marker"}));
+        assertEquals(0, index.positions(new String[]{"30"}).length);
+        assertArrayEquals(new int[]{0}, index.positions(new String[]{"35"}));
+    }
+
+    @Test
+    void testSlidingWindowWrapsPostings() {
+        // Keep a window of 8 events while appending many; postings rings wrap repeatedly
+        for (int i = 0; i < 1000; i++) {
+            index.add("tick " + (i % 3 == 0 ? "fizz" : "buzz"));
+            if (index.size() > 8) {
+                index.removeOldest(1);
+            }
+        }
+        // Events 992..999: multiples of 3 are 993 and 996 and 999
+        assertArrayEquals(new int[]{1, 4, 7}, index.positions(new String[]{"fizz"}));
+        assertEquals(8, index.positions(new String[]{"tick"}).length);
+
+        index.clear();
+        assertEquals(0, index.positions(new String[]{"tick"}).length);
+    }
+}
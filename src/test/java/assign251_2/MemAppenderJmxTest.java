@@ -7,9 +7,18 @@ import org.apache.log4j.spi.LoggingEvent;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import javax.management.Attribute;
 import javax.management.MBeanServer;
+import javax.management.NotificationListener;
 import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
 import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import static org.junit.jupiter.api.Assertions.*;
 
 class MemAppenderJmxTest {
@@ -23,6 +32,8 @@ class MemAppenderJmxTest {
         // Ensure clean singleton state for JMX tests
         MemAppender.resetInstance();
         appender = MemAppender.getInstance();
+        // Registration runs in the background; JMX tests need it to have completed
+        appender.awaitMBeanRegistration();
         appender.reset();
         appender.setMaxSize(100);
         appender.setLayout(new SimpleLayout());  // Add layout for formatting
@@ -113,4 +124,153 @@ class MemAppenderJmxTest {
         long cacheSize = (long) mbs.getAttribute(mbeanName, "EstimatedCacheSize");
         assertEquals(expected, cacheSize, "Should estimate based on raw message lengths without layout");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testJmxNotificationsDeliverNewEvents() throws Exception {
+        appender.setNotificationIntervalMillis(20);
+        List<String> received = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(3);
+        NotificationListener listener = (notification, handback) -> {
+            assertEquals(MemAppender.EVENTS_NOTIFICATION, notification.getType());
+            for (String message : (String[]) notification.getUserData()) {
+                received.add(message);
+                latch.countDown();
+            }
+        };
+        mbs.addNotificationListener(mbeanName, listener, null, null);
+
+        Logger logger = Logger.getLogger("NotifyTestLogger");
+        for (int i = 1; i <= 3; i++) {
+            appender.append(new LoggingEvent("c", logger, Level.INFO, "Notify " + i, null));
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS), "Notifications not delivered in time");
+        assertEquals("INFO - Notify 1" + System.lineSeparator(), received.get(0));
+        assertEquals("INFO - Notify 3" + System.lineSeparator(), received.get(2));
+        mbs.removeNotificationListener(mbeanName, listener);
+    }
+
+    @Test
+    void testNotificationPumpStopsWithLastListener() throws Exception {
+        NotificationListener first = (notification, handback) -> { };
+        NotificationListener second = (notification, handback) -> { };
+        mbs.addNotificationListener(mbeanName, first, null, "a");
+        mbs.addNotificationListener(mbeanName, first, null, "b");
+        mbs.addNotificationListener(mbeanName, second, null, null);
+        assertTrue(appender.isNotificationPumpRunning());
+
+        mbs.removeNotificationListener(mbeanName, first, null, "a");
+        mbs.removeNotificationListener(mbeanName, second);
+        assertTrue(appender.isNotificationPumpRunning(), "One registration is left");
+
+        mbs.removeNotificationListener(mbeanName, first, null, "b");
+        assertFalse(appender.isNotificationPumpRunning());
+
+        // A new listener starts it again
+        mbs.addNotificationListener(mbeanName, second, null, null);
+        assertTrue(appender.isNotificationPumpRunning());
+        mbs.removeNotificationListener(mbeanName, second);
+        assertFalse(appender.isNotificationPumpRunning());
+    }
+
+    @Test
+    void testNotificationsContinueAfterLayoutFailure() throws Exception {
+        CountDownLatch failed = new CountDownLatch(1);
+        appender.setLayout(new SimpleLayout() {
+            @Override
+            public String format(LoggingEvent event) {
+                if (failed.getCount() > 0) {
+                    failed.countDown();
+                    throw new IllegalStateException("layout failure");
+                }
+                return super.format(event);
+            }
+        });
+        appender.setNotificationIntervalMillis(20);
+        List<String> received = new CopyOnWriteArrayList<>();
+        CountDownLatch delivered = new CountDownLatch(1);
+        NotificationListener listener = (notification, handback) -> {
+            received.addAll(Arrays.asList((String[]) notification.getUserData()));
+            delivered.countDown();
+        };
+        mbs.addNotificationListener(mbeanName, listener, null, null);
+
+        Logger logger = Logger.getLogger("NotifyTestLogger");
+        appender.append(new LoggingEvent("c", logger, Level.INFO, "Lost", null));
+        assertTrue(failed.await(5, TimeUnit.SECONDS), "Layout not called in time");
+        appender.append(new LoggingEvent("c", logger, Level.INFO, "Delivered", null));
+
+        assertTrue(delivered.await(5, TimeUnit.SECONDS), "Pump stopped after the failure");
+        assertEquals(Arrays.asList("INFO - Delivered" + System.lineSeparator()), received);
+        mbs.removeNotificationListener(mbeanName, listener);
+    }
+
+    @Test
+    void testJmxResize() throws Exception {
+        Logger logger = Logger.getLogger("ResizeTestLogger");
+        for (int i = 0; i < 100; i++) {
+            appender.append(new LoggingEvent("c", logger, Level.INFO, "Log " + i, null));
+        }
+
+        mbs.setAttribute(mbeanName, new Attribute("MaxSize", 40));
+
+        assertEquals(40, mbs.getAttribute(mbeanName, "MaxSize"));
+        assertEquals(40, appender.getCurrentLogs().size());
+        assertEquals(60L, mbs.getAttribute(mbeanName, "DiscardedLogCount"));
+    }
+
+    @Test
+    void testJmxThroughputCounters() throws Exception {
+        Logger noisy = Logger.getLogger("NoisyLogger");
+        Logger quiet = Logger.getLogger("QuietLogger");
+        for (int i = 0; i < 30; i++) {
+            appender.append(new LoggingEvent("c", noisy, Level.DEBUG, "Noise " + i, null));
+        }
+        appender.append(new LoggingEvent("c", quiet, Level.ERROR, "Rare", null));
+
+        assertEquals(31L, mbs.getAttribute(mbeanName, "AppendedCount"));
+        CompositeData levels = (CompositeData) mbs.getAttribute(mbeanName, "LevelCounts");
+        assertEquals(30L, levels.get("DEBUG"));
+        assertEquals(1L, levels.get("ERROR"));
+        TabularData loggers = (TabularData) mbs.getAttribute(mbeanName, "LoggerCounts");
+        assertEquals(30L, loggers.get(new Object[]{"NoisyLogger"}).get("count"));
+        assertNotNull(mbs.getAttribute(mbeanName, "OneMinuteRate"));
+    }
+
+    @Test
+    void testJmxSearch() throws Exception {
+        Logger logger = Logger.getLogger("SearchTestLogger");
+        mbs.setAttribute(mbeanName, new Attribute("IndexEnabled", true));
+        appender.append(new LoggingEvent("c", logger, Level.INFO, "order 17 shipped", null));
+        appender.append(new LoggingEvent("c", logger, Level.ERROR, "order 18 failed", null));
+        appender.append(new LoggingEvent("c", logger, Level.ERROR, "payment 17 failed", null));
+
+        String[] hits = (String[]) mbs.invoke(mbeanName, "searchLogMessages",
+                new Object[]{"17"}, new String[]{String.class.getName()});
+
+        assertTrue((Boolean) mbs.getAttribute(mbeanName, "IndexEnabled"));
+        assertArrayEquals(new String[]{"INFO - order 17 shipped" + System.lineSeparator(),
+                "ERROR - payment 17 failed" + System.lineSeparator()}, hits);
+    }
+
+    @Test
+    void testJmxRollupsOutliveEviction() throws Exception {
+        appender.setMaxSize(5);
+        Logger logger = Logger.getLogger("RollupTestLogger");
+        for (int i = 0; i < 40; i++) {
+            appender.append(new LoggingEvent("c", logger, Level.ERROR, "Failure " + i, null));
+        }
+
+        long[] perMinute = (long[]) mbs.invoke(mbeanName, "getLevelCountsPerMinute",
+                new Object[]{"ERROR", 2}, new String[]{String.class.getName(), int.class.getName()});
+        long[] perSecond = (long[]) mbs.invoke(mbeanName, "getLevelCountsPerSecond",
+                new Object[]{"ERROR", 3600}, new String[]{String.class.getName(), int.class.getName()});
+        TabularData top = (TabularData) mbs.invoke(mbeanName, "getTopLoggers",
+                new Object[]{5}, new String[]{int.class.getName()});
+
+        assertEquals(5, appender.getCurrentLogs().size());
+        assertEquals(40, perMinute[0] + perMinute[1]);
+        assertEquals(40, Arrays.stream(perSecond).sum());
+        assertEquals(40L, top.get(new Object[]{"RollupTestLogger"}).get("count"));
+    }
+}
@@ -7,8 +7,12 @@ import org.apache.log4j.spi.LoggingEvent;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -144,4 +148,276 @@ class MemAppenderTest {
         assertEquals(1, appender.getCurrentLogs().size());
         assertEquals(0, appender.getDiscardedLogCount()); // Cover size < maxSize
     }
-}
\ No newline at end of file
+
+    @Test
+    void testStreamPreservesOrder() {
+        appender.setMaxSize(1000);
+        Logger logger = Logger.getLogger("TestLogger");
+        for (int i = 0; i < 500; i++) {
+            appender.append(new LoggingEvent("c", logger, Level.INFO, "Msg " + i, null));
+        }
+
+        List<String> sequential = appender.stream()
+                .map(LoggingEvent::getRenderedMessage)
+                .collect(Collectors.toList());
+        List<String> parallel = appender.stream().parallel()
+                .map(LoggingEvent::getRenderedMessage)
+                .collect(Collectors.toList());
+
+        assertEquals(500, sequential.size());
+        assertEquals("Msg 0", sequential.get(0));
+        assertEquals("Msg 499", sequential.get(499));
+        assertEquals(sequential, parallel, "Parallel stream should keep encounter order");
+    }
+
+    @Test
+    void testIteratorIsSnapshot() {
+        Logger logger = Logger.getLogger("TestLogger");
+        LoggingEvent event1 = new LoggingEvent("c", logger, Level.INFO, "Msg 1", null);
+        appender.append(event1);
+
+        Iterator<LoggingEvent> it = appender.iterator();
+        appender.append(new LoggingEvent("c", logger, Level.INFO, "Msg 2", null));
+
+        assertTrue(it.hasNext());
+        assertSame(event1, it.next());
+        assertFalse(it.hasNext(), "Events appended after iterator() should not be visible");
+        assertThrows(UnsupportedOperationException.class, it::remove);
+    }
+
+    @Test
+    void testParallelFormattingKeepsOrder() {
+        appender.setMaxSize(5000);
+        appender.setParallelThreshold(100);
+        appender.setLayout(new VelocityLayout("[$p] $m$n"));
+        Logger logger = Logger.getLogger("TestLogger");
+        for (int i = 0; i < 5000; i++) {
+            appender.append(new LoggingEvent("c", logger, Level.INFO, "Msg " + i, null));
+        }
+
+        List<String> strings = appender.getEventStrings();
+        assertEquals(5000, strings.size());
+        for (int i = 0; i < strings.size(); i++) {
+            assertEquals("[INFO] Msg " + i + System.lineSeparator(), strings.get(i));
+        }
+        assertArrayEquals(strings.toArray(new String[0]), appender.getLogMessages());
+    }
+
+    @Test
+    void testParallelThresholdValidation() {
+        assertThrows(IllegalArgumentException.class, () -> appender.setParallelThreshold(0));
+    }
+
+    @Test
+    void testThreadNameCapturedAtAppend() throws InterruptedException {
+        appender.setLayout(new VelocityLayout("$t"));
+        Logger logger = Logger.getLogger("TestLogger");
+        Thread producer = new Thread(() ->
+                appender.append(new LoggingEvent("c", logger, Level.INFO, "From producer", null)),
+                "producer-thread");
+        producer.start();
+        producer.join();
+
+        assertEquals("producer-thread", appender.getEventStrings().get(0));
+    }
+
+    @Test
+    void testSubscriptionReceivesOnlyNewEventsInBatches() {
+        Logger logger = Logger.getLogger("TestLogger");
+        appender.append(new LoggingEvent("c", logger, Level.INFO, "Before", null));
+
+        LogSubscription subscription = appender.subscribe(10);
+        for (int i = 0; i < 5; i++) {
+            appender.append(new LoggingEvent("c", logger, Level.INFO, "After " + i, null));
+        }
+
+        assertEquals(5, subscription.getPendingCount());
+        List<LoggingEvent> first = subscription.poll(3);
+        assertEquals(3, first.size());
+        assertEquals("After 0", first.get(0).getRenderedMessage());
+        List<LoggingEvent> rest = subscription.poll(100);
+        assertEquals(2, rest.size());
+        assertEquals("After 4", rest.get(1).getRenderedMessage());
+        assertTrue(subscription.poll(100).isEmpty());
+    }
+
+    @Test
+    void testSlowSubscriberDropsWithoutBlocking() {
+        appender.setMaxSize(1000);
+        Logger logger = Logger.getLogger("TestLogger");
+        LogSubscription slow = appender.subscribe(3);
+        LogSubscription fast = appender.subscribe(100);
+
+        for (int i = 0; i < 10; i++) {
+            appender.append(new LoggingEvent("c", logger, Level.INFO, "Msg " + i, null));
+        }
+
+        assertEquals(10, appender.getCurrentLogs().size(), "append() must not be affected by a full subscriber");
+        assertEquals(7, slow.getDroppedCount());
+        assertEquals(3, slow.poll(100).size());
+        assertEquals(0, fast.getDroppedCount());
+        assertEquals(10, fast.poll(100).size());
+    }
+
+    @Test
+    void testClosedSubscriptionStopsReceiving() {
+        Logger logger = Logger.getLogger("TestLogger");
+        LogSubscription subscription = appender.subscribe(10);
+        subscription.close();
+        appender.append(new LoggingEvent("c", logger, Level.INFO, "Msg", null));
+        assertEquals(0, subscription.getPendingCount());
+        assertThrows(IllegalArgumentException.class, () -> appender.subscribe(0));
+    }
+
+    @Test
+    void testPrintLogsWritesFormattedEvents() {
+        appender.setLayout(new VelocityLayout("[$p] $m$n"));
+        Logger logger = Logger.getLogger("TestLogger");
+        appender.append(new LoggingEvent("c", logger, Level.INFO, "Msg 1", null));
+        appender.append(new LoggingEvent("c", logger, Level.WARN, "Msg 2", null));
+
+        PrintStream original = System.out;
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(captured, true));
+        try {
+            appender.printLogs();
+        } finally {
+            System.setOut(original);
+        }
+
+        String ls = System.lineSeparator();
+        assertEquals("[INFO] Msg 1" + ls + "[WARN] Msg 2" + ls, captured.toString());
+        assertEquals(0, appender.getCurrentLogs().size());
+    }
+
+    @Test
+    void testPrintLogsUsesTheConsoleEncoding() throws Exception {
+        appender.setLayout(new VelocityLayout("[$p] $m$n"));
+        appender.append(new LoggingEvent("c", Logger.getLogger("TestLogger"), Level.INFO, "caf\u00e9", null));
+
+        PrintStream original = System.out;
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(captured, true, "ISO-8859-1"));
+        try {
+            appender.printLogs();
+        } finally {
+            System.setOut(original);
+        }
+
+        assertEquals("[INFO] caf\u00e9" + System.lineSeparator(), captured.toString("ISO-8859-1"));
+    }
+
+    @Test
+    void testEstimatedCacheSizeMatchesEncodedLength() {
+        VelocityLayout layout = new VelocityLayout("[$p] $m$n");
+        appender.setLayout(layout);
+        Logger logger = Logger.getLogger("TestLogger");
+        LoggingEvent ascii = new LoggingEvent("c", logger, Level.INFO, "plain", null);
+        LoggingEvent accented = new LoggingEvent("c", logger, Level.INFO, "caf\u00e9 \u2713", null);
+        appender.append(ascii);
+        appender.append(accented);
+
+        long expected = layout.format(ascii).getBytes().length + layout.format(accented).getBytes().length;
+        assertEquals(expected, appender.getEstimatedCacheSize());
+    }
+
+    @Test
+    void testShrinkEvictsOldestInOneStep() {
+        appender.setMaxSize(100);
+        Logger logger = Logger.getLogger("TestLogger");
+        for (int i = 0; i < 100; i++) {
+            appender.append(new LoggingEvent("c", logger, Level.INFO, "Msg " + i, null));
+        }
+
+        appender.setMaxSize(10);
+
+        List<LoggingEvent> logs = appender.getCurrentLogs();
+        assertEquals(10, logs.size());
+        assertEquals("Msg 90", logs.get(0).getRenderedMessage(), "Newest events should be kept");
+        assertEquals(90, appender.getDiscardedLogCount());
+        assertEquals(10, appender.getMaxSize());
+    }
+
+    @Test
+    void testGrowKeepsEventsAndStopsDiscarding() {
+        appender.setMaxSize(5);
+        Logger logger = Logger.getLogger("TestLogger");
+        for (int i = 0; i < 5; i++) {
+            appender.append(new LoggingEvent("c", logger, Level.INFO, "Msg " + i, null));
+        }
+
+        appender.setMaxSize(50);
+        for (int i = 5; i < 20; i++) {
+            appender.append(new LoggingEvent("c", logger, Level.INFO, "Msg " + i, null));
+        }
+
+        assertEquals(20, appender.getCurrentLogs().size());
+        assertEquals(0, appender.getDiscardedLogCount());
+    }
+
+    @Test
+    void testMaxSizeValidation() {
+        assertThrows(IllegalArgumentException.class, () -> appender.setMaxSize(0));
+    }
+
+    @Test
+    void testSearchWithIndexFollowsEviction() {
+        appender.setIndexEnabled(true);
+        appender.setMaxSize(50);
+        Logger logger = Logger.getLogger("TestLogger");
+        for (int i = 0; i < 200; i++) {
+            appender.append(new LoggingEvent("c", logger, Level.INFO, "Request req-" + (i % 20) + " took " + i + " ms", null));
+        }
+
+        List<LoggingEvent> hits = appender.search("REQ-7 took");
+        // Events 150..199 remain; req-7 appears at 167 and 187
+        assertEquals(2, hits.size());
+        assertEquals("Request req-7 took 167 ms", hits.get(0).getRenderedMessage());
+        assertEquals("Request req-7 took 187 ms", hits.get(1).getRenderedMessage());
+        assertTrue(appender.search("req-7 149").isEmpty(), "Evicted events must not match");
+        assertTrue(appender.search("").isEmpty());
+    }
+
+    @Test
+    void testSearchIndexMatchesScan() {
+        Logger logger = Logger.getLogger("TestLogger");
+        appender.setMaxSize(30);
+        for (int i = 0; i < 45; i++) {
+            appender.append(new LoggingEvent("c", logger, Level.INFO, "code E" + (i % 4) + " item " + i, null));
+        }
+        List<LoggingEvent> scanned = appender.search("e2 code");
+
+        // Enabling indexes the events already cached
+        appender.setIndexEnabled(true);
+        assertTrue(appender.isIndexEnabled());
+        assertEquals(scanned, appender.search("e2 code"));
+        assertEquals(7, scanned.size()); // items 18, 22, ..., 42
+
+        appender.setMaxSize(5);
+        assertEquals(1, appender.search("e2").size());
+
+        appender.reset();
+        assertTrue(appender.search("code").isEmpty());
+        appender.append(new LoggingEvent("c", logger, Level.INFO, "code again", null));
+        assertEquals(1, appender.search("code").size());
+    }
+
+    @Test
+    void testSearchWithIndexOnLinkedList() {
+        appender = MemAppender.getInstance(new LinkedList<>());
+        appender.setLayout(new SimpleLayout());
+        appender.setMaxSize(40);
+        appender.setIndexEnabled(true);
+        Logger logger = Logger.getLogger("TestLogger");
+        for (int i = 0; i < 100; i++) {
+            appender.append(new LoggingEvent("c", logger, Level.INFO, "item " + i + " mod" + (i % 7), null));
+        }
+
+        List<LoggingEvent> hits = appender.search("mod3");
+        // Events 60..99 remain; i % 7 == 3 for 66, 73, 80, 87, 94
+        assertEquals(5, hits.size());
+        assertEquals("item 66 mod3", hits.get(0).getRenderedMessage());
+        assertEquals("item 94 mod3", hits.get(4).getRenderedMessage());
+        assertEquals("item 99 mod1", appender.search("item 99").get(0).getRenderedMessage());
+    }
+}
@@ -0,0 +1,104 @@
+package assign251_2;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.spi.LoggingEvent;
+import org.junit.jupiter.api.Test;
+
+import javax.management.openmbean.TabularData;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RollupStatisticsTest {
+
+    private static final long START = 1_699_999_980_000L; // on a minute boundary
+
+    private final AtomicLong clock = new AtomicLong(START);
+    private final RollupStatistics rollups = new RollupStatistics(clock::get);
+
+    private void record(long millis, String loggerName, Level level) {
+        rollups.record(new LoggingEvent("c", Logger.getLogger(loggerName), millis, level, "msg", null));
+    }
+
+    @Test
+    void testPerSecondSeries() {
+        record(START, "a", Level.ERROR);
+        record(START + 999, "a", Level.ERROR);
+        record(START + 2000, "a", Level.ERROR);
+        record(START + 2500, "a", Level.INFO);
+        clock.set(START + 3000);
+
+        assertArrayEquals(new long[]{2, 0, 1, 0}, rollups.perSecond("ERROR", 4));
+        assertArrayEquals(new long[]{0, 1, 0}, rollups.perSecond("info", 3));
+    }
+
+    @Test
+    void testOldBucketsExpire() {
+        record(START, "a", Level.WARN);
+        // An hour later the first second has been overwritten
+        record(START + 3600_000L, "a", Level.WARN);
+        clock.set(START + 3600_000L);
+
+        long[] lastHour = rollups.perSecond("WARN", 3600);
+        assertEquals(1, lastHour[3599]);
+        assertEquals(1, Arrays.stream(lastHour).sum());
+        // Events older than the ring are dropped rather than counted in a wrong bucket
+        record(START - 1000, "a", Level.WARN);
+        assertEquals(1, Arrays.stream(rollups.perSecond("WARN", 3600)).sum());
+        // The minute ring still has both
+        assertEquals(2, Arrays.stream(rollups.perMinute("WARN", 61)).sum());
+    }
+
+    @Test
+    void testPerMinuteOutlivesSecondRing() {
+        for (int minute = 0; minute < 120; minute++) {
+            for (int i = 0; i <= minute % 3; i++) {
+                record(START + minute * 60_000L, "a", Level.ERROR);
+            }
+        }
+        clock.set(START + 119 * 60_000L);
+
+        long[] perMinute = rollups.perMinute("ERROR", 120);
+        assertEquals(1, perMinute[0]);
+        assertEquals(3, perMinute[119]);
+        assertEquals(240, Arrays.stream(perMinute).sum());
+    }
+
+    @Test
+    void testTopLoggers() {
+        for (int i = 0; i < 50; i++) {
+            record(START, "busy", Level.INFO);
+        }
+        for (int i = 0; i < 20; i++) {
+            record(START + 60_000L, "busy", Level.INFO);
+            record(START + 60_000L, "second", Level.INFO);
+        }
+        // More distinct loggers than the sketch keeps
+        for (int i = 0; i < 30; i++) {
+            record(START + 60_000L, "rare-" + i, Level.INFO);
+        }
+        clock.set(START + 60_000L);
+
+        TabularData lastTwo = rollups.topLoggers(2);
+        assertEquals(RollupStatistics.TOP_K, lastTwo.size());
+        assertEquals(70L, lastTwo.get(new Object[]{"busy"}).get("count"));
+        assertEquals(20L, lastTwo.get(new Object[]{"second"}).get("count"));
+
+        TabularData lastOne = rollups.topLoggers(1);
+        assertEquals(20L, lastOne.get(new Object[]{"busy"}).get("count"));
+    }
+
+    @Test
+    void testResetAndValidation() {
+        record(START, "a", Level.FATAL);
+        rollups.reset();
+        assertEquals(0, rollups.perSecond("FATAL", 1)[0]);
+        assertTrue(rollups.topLoggers(60).isEmpty());
+
+        assertThrows(IllegalArgumentException.class, () -> rollups.perSecond("NOPE", 10));
+        assertThrows(IllegalArgumentException.class, () -> rollups.perSecond("ERROR", 3601));
+        assertThrows(IllegalArgumentException.class, () -> rollups.topLoggers(0));
+    }
+}
@@ -8,7 +8,10 @@ import org.junit.jupiter.api.Test;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
@@ -32,6 +35,10 @@ class StressTest {
     @Test
     void runAllStressTests() throws IOException, InterruptedException {
 
+        // Measured first, while the JVM is still cold
+        System.out.println("=== Startup Cost (cold JVM) ===");
+        testStartupCost();
+
         MemAppender.resetInstance();
         if (MemAppender.getInstance() != null) {
             MemAppender.getInstance().reset();
@@ -47,20 +54,65 @@ class StressTest {
         for (long maxSize : MAX_SIZES) {
             testMemAppender(new ArrayList<>(), "MemAppender(ArrayList)", maxSize);
             testMemAppender(new LinkedList<>(), "MemAppender(LinkedList)", maxSize);
+            testMemAppender(new EventSlotList((int) Math.min(maxSize, TOTAL_LOGS)), "MemAppender(EventSlotList)", maxSize);
         }
 
         testConsoleAppender();
         testFileAppender();
+        testWriteBehind();
 
         System.out.println("\n=== Layout Comparison (200k logs, 30 threads) ===");
         testLayoutPerformance();
 
         retainedLogs.clear();
-        System.out.println("\n=== Test finished. Sleeping for 90 seconds to allow profiler connection... ===");
-        Thread.sleep(90000);
+        // Profiler pause is opt-in, e.g. -Dstress.profilerPauseSeconds=90 for VisualVM
+        long pauseSeconds = Long.getLong("stress.profilerPauseSeconds", 0);
+        if (pauseSeconds > 0) {
+            System.out.printf("%n=== Test finished. Sleeping for %d seconds to allow profiler connection... ===%n", pauseSeconds);
+            Thread.sleep(pauseSeconds * 1000);
+        }
+    }
+
+    /**
+     * Reproducible load scenarios (see LoadGenerator); results go to target/load-results.
+     * Use -Dload.scenarios=path to run other scenario files or directories.
+     */
+    @Test
+    void runLoadScenarios() throws IOException, InterruptedException {
+        System.out.println("\n=== Load Scenarios ===");
+        Path input = Paths.get(System.getProperty("load.scenarios", LoadGenerator.DEFAULT_SCENARIOS.toString()));
+        List<LoadGenerator.Scenario> scenarios = LoadGenerator.loadScenarios(Collections.singletonList(input));
+        LoadGenerator.runAll(scenarios, LoadGenerator.DEFAULT_OUTPUT);
     }
 
 
+    /**
+     * Time to the first logged event, then the cost of creating many layouts,
+     * as a service with dozens of loggers would at startup.
+     */
+    private void testStartupCost() {
+        long start = System.nanoTime();
+        MemAppender.resetInstance();
+        MemAppender appender = MemAppender.getInstance();
+        appender.setLayout(new VelocityLayout("[$p] $c $d: $m$n"));
+        Logger logger = Logger.getLogger("StartupLogger");
+        logger.removeAllAppenders();
+        logger.addAppender(appender);
+        logger.info("first event");
+        appender.getEventStrings();
+        long firstEvent = System.nanoTime();
+
+        for (int i = 0; i < 50; i++) {
+            new VelocityLayout("[$p] $c $d: $m$n").format(appender.getCurrentLogs().get(0));
+        }
+        long fiftyLayouts = System.nanoTime();
+
+        System.out.printf("%-50s %-12.3f%n", "First event formatted (ms)", (firstEvent - start) / 1_000_000.0);
+        System.out.printf("%-50s %-12.3f%n", "50 more VelocityLayouts (ms)", (fiftyLayouts - firstEvent) / 1_000_000.0);
+        logger.removeAllAppenders();
+        MemAppender.resetInstance();
+    }
+
     private void runWarmup() throws InterruptedException {
         MemAppender.resetInstance();
         MemAppender appender = MemAppender.getInstance();
@@ -203,6 +255,50 @@ class StressTest {
     }
 
 
+    /*
+     MemAppender with write-behind persistence, same load and layout as FileAppender
+     */
+    private void testWriteBehind() throws InterruptedException {
+        MemAppender.resetInstance();
+        MemAppender appender = MemAppender.getInstance();
+        appender.reset();
+        appender.setMaxSize(10000);
+        appender.setLayout(new SimpleLayout());
+        appender.enableWriteBehind("target/stress-write-behind.log", 0, 0, false);
+        Logger logger = Logger.getLogger("WriteBehindStressLogger");
+        logger.removeAllAppenders();
+        logger.addAppender(appender);
+        logger.setLevel(Level.INFO);
+
+        long totalTime = 0;
+        long peakMemory = 0;
+
+        for (int batch = 0; batch < BATCH_COUNT; batch++) {
+            long startMem = Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
+            long startTime = System.nanoTime();
+
+            runConcurrentBatchLoad(logger, batch);
+
+            long endTime = System.nanoTime();
+            long endMem = Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
+            totalTime += (endTime - startTime) / 1_000_000;
+            peakMemory = Math.max(peakMemory, Math.max(0, endMem - startMem));
+
+            Thread.sleep(800);
+        }
+
+        long persisted = appender.getPersistedCount();
+        long lost = appender.getPersistenceLostCount();
+        long drainStart = System.nanoTime();
+        appender.disableWriteBehind();
+        long drainTime = (System.nanoTime() - drainStart) / 1_000_000;
+        System.out.printf("%-50s %-12s %-12.3f %-18.2f (Persisted: %d, Lost: %d, Final drain: %d ms)%n",
+                "MemAppender(WriteBehind) [Summary]", 10000, (double) totalTime, peakMemory / 1024.0 / 1024.0,
+                persisted, lost, drainTime);
+        appender.reset();
+        MemAppender.resetInstance();
+    }
+
     private void testLayoutPerformance() throws InterruptedException {
         MemAppender appender = MemAppender.getInstance();
         Logger logger = Logger.getLogger("LayoutTest");
@@ -239,9 +335,24 @@ class StressTest {
         long endP = System.nanoTime();
         double timeMsP = (endP - startP) / 1_000_000.0;
 
+        // JsonLayout
+        appender.reset();
+        appender.setLayout(new JsonLayout());
+        logger.removeAllAppenders();
+        logger.addAppender(appender);
+
+        long startJ = System.nanoTime();
+        for (int batch = 0; batch < BATCH_COUNT; batch++) {
+            runConcurrentBatchLoad(logger, batch);
+            Thread.sleep(500);
+        }
+        appender.getEventStrings();
+        long endJ = System.nanoTime();
+        double timeMsJ = (endJ - startJ) / 1_000_000.0;
 
         System.out.printf("VelocityLayout Time (200k logs): %.3f ms%n", timeMsV);
         System.out.printf("PatternLayout Time (200k logs): %.3f ms%n", timeMsP);
+        System.out.printf("JsonLayout Time (200k logs): %.3f ms%n", timeMsJ);
         System.out.printf("Performance Ratio: VelocityLayout is %.1f x slower%n", timeMsV / timeMsP);
     }
 
@@ -0,0 +1,190 @@
+package assign251_2;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.SimpleLayout;
+import org.apache.log4j.helpers.OnlyOnceErrorHandler;
+import org.apache.log4j.spi.LoggingEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TriggeredDumpTest {
+
+    @TempDir
+    Path tempDir;
+
+    private MemAppender appender;
+    private Path dumpFile;
+    private final Logger logger = Logger.getLogger("DumpLogger");
+
+    @BeforeEach
+    void setUp() {
+        MemAppender.resetInstance();
+        appender = MemAppender.getInstance();
+        appender.reset();
+        appender.setMaxSize(10);
+        appender.setLayout(new SimpleLayout());
+        dumpFile = tempDir.resolve("dump.log");
+    }
+
+    @AfterEach
+    void tearDown() {
+        MemAppender.resetInstance();
+    }
+
+    private void log(Level level, String message) {
+        appender.append(new LoggingEvent("c", logger, level, message, null));
+    }
+
+    private List<String> dumpedLines() throws IOException {
+        appender.disableTriggeredDump(); // waits for pending dumps
+        return Files.exists(dumpFile) ? Files.readAllLines(dumpFile) : Arrays.asList();
+    }
+
+    @Test
+    void testNothingWrittenWithoutTrigger() throws IOException {
+        appender.enableTriggeredDump(Level.ERROR, dumpFile.toString(), 0, 0);
+        for (int i = 0; i < 50; i++) {
+            log(Level.DEBUG, "debug " + i);
+        }
+        assertTrue(dumpedLines().isEmpty());
+        assertEquals(10, appender.getCurrentLogs().size(), "The window stays in memory");
+    }
+
+    @Test
+    void testDumpsContextAndPostTriggerEvents() throws IOException {
+        appender.enableTriggeredDump(Level.ERROR, dumpFile.toString(), 3, 0);
+        for (int i = 0; i < 20; i++) {
+            log(Level.DEBUG, "before " + i);
+        }
+        log(Level.ERROR, "failure");
+        assertEquals(1, appender.getDumpTriggerCount());
+        for (int i = 0; i < 5; i++) {
+            log(Level.DEBUG, "after " + i);
+        }
+
+        List<String> lines = dumpedLines();
+        // 9 events of context, the trigger, then 3 post-trigger events
+        assertEquals(13, lines.size());
+        assertEquals("DEBUG - before 11", lines.get(0));
+        assertEquals("ERROR - failure", lines.get(9));
+        assertEquals("DEBUG - after 2", lines.get(12));
+    }
+
+    @Test
+    void testRateLimitAndNoDuplicates() throws IOException {
+        appender.enableTriggeredDump(Level.WARN, dumpFile.toString(), 0, 60_000);
+        log(Level.INFO, "a");
+        log(Level.WARN, "first");
+        assertEquals(1, appender.getDumpTriggerCount());
+        log(Level.INFO, "b");
+        log(Level.ERROR, "suppressed");
+        assertEquals(1, appender.getDumpTriggerCount());
+
+        List<String> lines = dumpedLines();
+        assertEquals(Arrays.asList("INFO - a", "WARN - first"), lines);
+    }
+
+    @Test
+    void testBackToBackTriggersDoNotRewriteEvents() throws IOException {
+        appender.enableTriggeredDump(Level.ERROR, dumpFile.toString(), 0, 0);
+        log(Level.INFO, "a");
+        log(Level.ERROR, "first");
+        log(Level.INFO, "b");
+        log(Level.ERROR, "second");
+
+        assertEquals(Arrays.asList("INFO - a", "ERROR - first", "INFO - b", "ERROR - second"), dumpedLines());
+    }
+
+    @Test
+    void testLongCaptureIsNotLostToEviction() throws IOException {
+        // More post-trigger events than the window holds
+        appender.enableTriggeredDump(Level.ERROR, dumpFile.toString(), 25, 0);
+        log(Level.ERROR, "failure");
+        for (int i = 0; i < 25; i++) {
+            log(Level.DEBUG, "after " + i);
+        }
+
+        List<String> lines = dumpedLines();
+        assertEquals(26, lines.size());
+        assertEquals("DEBUG - after 24", lines.get(25));
+    }
+
+    @Test
+    void testCloseWritesPartialCapture() throws IOException {
+        appender.enableTriggeredDump(Level.ERROR, dumpFile.toString(), 100, 0);
+        log(Level.ERROR, "failure");
+        log(Level.DEBUG, "after 0");
+
+        appender.close();
+
+        assertEquals(Arrays.asList("ERROR - failure", "DEBUG - after 0"), Files.readAllLines(dumpFile));
+    }
+
+    @Test
+    void testValidation() {
+        assertThrows(IllegalArgumentException.class,
+                () -> appender.enableTriggeredDump(null, dumpFile.toString(), 0, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> appender.enableTriggeredDump(Level.ERROR, dumpFile.toString(), -1, 0));
+    }
+
+    @Test
+    void testShrinkingAndClearingDumpCapturedEventsFirst() throws IOException {
+        appender.setMaxSize(100);
+        appender.enableTriggeredDump(Level.ERROR, dumpFile.toString(), 50, 0);
+        log(Level.ERROR, "failure");
+        for (int i = 0; i < 20; i++) {
+            log(Level.DEBUG, "after " + i);
+        }
+        appender.setMaxSize(5); // evicts 16 undumped post-trigger events
+        for (int i = 20; i < 30; i++) {
+            log(Level.DEBUG, "after " + i);
+        }
+        appender.reset(); // clears 5 undumped post-trigger events
+        log(Level.DEBUG, "after clear");
+
+        List<String> lines = dumpedLines();
+        // The trigger, all 30 post-trigger events and the one after the clear, each once
+        assertEquals(32, lines.size());
+        assertEquals("ERROR - failure", lines.get(0));
+        for (int i = 0; i < 30; i++) {
+            assertEquals("DEBUG - after " + i, lines.get(i + 1));
+        }
+        assertEquals("DEBUG - after clear", lines.get(31));
+    }
+
+    @Test
+    void testLayoutFailureIsReported() throws IOException {
+        List<String> errors = new CopyOnWriteArrayList<>();
+        appender.setErrorHandler(new OnlyOnceErrorHandler() {
+            @Override
+            public void error(String message, Exception e, int errorCode) {
+                errors.add(message);
+            }
+        });
+        appender.setLayout(new SimpleLayout() {
+            @Override
+            public String format(LoggingEvent event) {
+                throw new IllegalStateException("layout failure");
+            }
+        });
+        appender.enableTriggeredDump(Level.ERROR, dumpFile.toString(), 0, 0);
+        log(Level.ERROR, "failure");
+
+        assertTrue(dumpedLines().isEmpty());
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0).startsWith("Failed to format events"), errors.get(0));
+    }
+}
@@ -93,5 +93,128 @@ class VelocityLayoutTest {
         }, "Should throw on invalid logsystem class");
     }
 
-}
 
+    @Test
+    void testFormatIntoBuilderAppends() {
+        VelocityLayout layout = new VelocityLayout("[$p] $m");
+        Logger logger = Logger.getLogger("TestLogger");
+        LoggingEvent event = new LoggingEvent("c", logger, Level.INFO, "Streamed", null);
+
+        StringBuilder out = new StringBuilder("prefix:");
+        layout.format(event, out);
+        assertEquals("prefix:" + layout.format(event), out.toString());
+    }
+
+    @Test
+    void testFormatIntoBuilderInvalidTemplate() {
+        VelocityLayout layout = new VelocityLayout("#if ($p == 'INFO')");
+        Logger logger = Logger.getLogger("TestLogger");
+        LoggingEvent event = new LoggingEvent("c", logger, Level.INFO, "Raw", null);
+
+        StringBuilder out = new StringBuilder("x");
+        layout.format(event, out);
+        assertEquals("xRaw", out.toString(), "Invalid template should append only the raw message");
+    }
+
+    @Test
+    void testPatternChangeIsReparsed() {
+        VelocityLayout layout = new VelocityLayout("A:$m");
+        Logger logger = Logger.getLogger("TestLogger");
+        LoggingEvent event = new LoggingEvent("c", logger, Level.INFO, "x", null);
+
+        assertEquals("A:x", layout.format(event));
+        layout.setPattern("B:$m");
+        assertEquals("B:x", layout.format(event));
+        layout.setPattern(null);
+        assertEquals("x", layout.format(event));
+    }
+
+    @Test
+    void testLayoutsShareEngineButNotTemplates() {
+        VelocityLayout first = new VelocityLayout("1:$m");
+        VelocityLayout second = new VelocityLayout("2:$m");
+        Logger logger = Logger.getLogger("TestLogger");
+        LoggingEvent event = new LoggingEvent("c", logger, Level.INFO, "x", null);
+
+        assertEquals("1:x", first.format(event));
+        assertEquals("2:x", second.format(event));
+    }
+
+    @Test
+    void testThrowableVariable() {
+        VelocityLayout layout = new VelocityLayout("$m$n$e");
+        assertFalse(layout.ignoresThrowable(), "Layout renders the throwable when the pattern uses $e");
+        Logger logger = Logger.getLogger("TestLogger");
+        RuntimeException boom = new RuntimeException("boom");
+        LoggingEvent event = new LoggingEvent("c", logger, Level.ERROR, "Failed", boom);
+
+        String formatted = layout.format(event);
+        assertTrue(formatted.startsWith("Failed" + System.lineSeparator() + "java.lang.RuntimeException: boom"));
+        assertTrue(formatted.contains("testThrowableVariable"));
+
+        LoggingEvent noThrowable = new LoggingEvent("c", logger, Level.INFO, "Fine", null);
+        assertEquals("Fine" + System.lineSeparator(), layout.format(noThrowable));
+    }
+
+    @Test
+    void testIdenticalStackTracesShareRendering() {
+        Logger logger = Logger.getLogger("TestLogger");
+        LoggingEvent first = null;
+        LoggingEvent second = null;
+        for (int i = 0; i < 2; i++) {
+            // Same class, message and frames on every iteration
+            LoggingEvent event = new LoggingEvent("c", logger, Level.ERROR, "Failed", new IllegalStateException("same"));
+            if (i == 0) {
+                first = event;
+            } else {
+                second = event;
+            }
+        }
+
+        assertNotSame(first.getThrowableInformation().getThrowable(), second.getThrowableInformation().getThrowable());
+        assertSame(ThrowableRenderer.lines(first), ThrowableRenderer.lines(second));
+        assertSame(ThrowableRenderer.text(first), ThrowableRenderer.text(second));
+
+        LoggingEvent different = new LoggingEvent("c", logger, Level.ERROR, "Failed", new IllegalStateException("other"));
+        assertNotEquals(ThrowableRenderer.text(first), ThrowableRenderer.text(different));
+    }
+
+    @Test
+    void testThrowablesWithDifferentToStringAreRenderedSeparately() {
+        Logger logger = Logger.getLogger("TestLogger");
+        LoggingEvent[] events = new LoggingEvent[2];
+        for (int i = 0; i < 2; i++) {
+            // Same class, message and frames; only toString() differs
+            int code = i;
+            events[i] = new LoggingEvent("c", logger, Level.ERROR, "Failed", new CodedException("same", code));
+        }
+
+        assertTrue(ThrowableRenderer.lines(events[0])[0].endsWith("code=0"));
+        assertTrue(ThrowableRenderer.lines(events[1])[0].endsWith("code=1"));
+    }
+
+    private static final class CodedException extends RuntimeException {
+        private final int code;
+
+        CodedException(String message, int code) {
+            super(message);
+            this.code = code;
+        }
+
+        @Override
+        public String toString() {
+            return super.toString() + " code=" + code;
+        }
+    }
+
+    @Test
+    void testInlineMacrosStayWithTheirLayout() {
+        LoggingEvent event = new LoggingEvent("c", Logger.getLogger("TestLogger"), Level.INFO, "msg", null);
+        VelocityLayout one = new VelocityLayout("#macro(tag)ONE#end#tag() $m");
+        VelocityLayout two = new VelocityLayout("#macro(tag)TWO#end#tag() $m");
+
+        assertEquals("ONE msg", one.format(event));
+        assertEquals("TWO msg", two.format(event));
+        assertEquals("ONE msg", one.format(event));
+    }
+}
@@ -0,0 +1,168 @@
+package assign251_2;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.SimpleLayout;
+import org.apache.log4j.helpers.OnlyOnceErrorHandler;
+import org.apache.log4j.spi.LoggingEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteBehindTest {
+
+    @TempDir
+    Path tempDir;
+
+    private MemAppender appender;
+    private Path file;
+    private final Logger logger = Logger.getLogger("WriteBehindLogger");
+
+    @BeforeEach
+    void setUp() {
+        MemAppender.resetInstance();
+        appender = MemAppender.getInstance();
+        appender.reset();
+        appender.setMaxSize(100_000);
+        appender.setLayout(new SimpleLayout());
+        file = tempDir.resolve("persist.log");
+    }
+
+    @AfterEach
+    void tearDown() {
+        MemAppender.resetInstance();
+    }
+
+    private void log(String message) {
+        appender.append(new LoggingEvent("c", logger, Level.INFO, message, null));
+    }
+
+    @Test
+    void testPersistsNewEventsWithoutClearingWindow() throws Exception {
+        log("before enable");
+        appender.enableWriteBehind(file.toString(), 0, 0, true);
+        for (int i = 0; i < 1000; i++) {
+            log("event " + i);
+        }
+        // The writer wakes up on its own
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (appender.getPersistedCount() < 1000 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1000, appender.getPersistedCount());
+        appender.disableWriteBehind();
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(1000, lines.size());
+        assertEquals("INFO - event 0", lines.get(0));
+        assertEquals("INFO - event 999", lines.get(999));
+        assertEquals(1001, appender.getCurrentLogs().size(), "Window must not be cleared");
+    }
+
+    @Test
+    void testPrintLogsDoesNotLoseUnpersistedEvents() throws IOException {
+        appender.enableWriteBehind(file.toString(), 0, 0, false);
+        for (int i = 0; i < 500; i++) {
+            log("event " + i);
+        }
+        appender.printLogs();
+        log("after clear");
+
+        appender.close(); // disables write-behind after writing everything
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(501, lines.size());
+        assertEquals("INFO - event 499", lines.get(499));
+        assertEquals("INFO - after clear", lines.get(500));
+    }
+
+    @Test
+    void testPersistsEventsEvictedBeforeTheWriterReachedThem() throws IOException {
+        // A tiny window the writer cannot keep up with; more events than the carry buffer holds
+        appender.setMaxSize(10);
+        appender.enableWriteBehind(file.toString(), 0, 0, false);
+        int count = 3 * WriteBehind.MAX_CARRIED;
+        for (int i = 0; i < count; i++) {
+            log("event " + i);
+        }
+        appender.disableWriteBehind();
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(count, lines.size());
+        // Persisted in order and never twice
+        for (int i = 0; i < count; i++) {
+            assertEquals("INFO - event " + i, lines.get(i));
+        }
+        assertEquals(10, appender.getCurrentLogs().size());
+    }
+
+    @Test
+    void testShrinkingTheWindowKeepsUnpersistedEvents() throws IOException {
+        appender.enableWriteBehind(file.toString(), 0, 0, false);
+        for (int i = 0; i < 1000; i++) {
+            log("event " + i);
+        }
+        appender.setMaxSize(1);
+        appender.disableWriteBehind();
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(1000, lines.size());
+        assertEquals("INFO - event 999", lines.get(999));
+    }
+
+    @Test
+    void testRotatesBySize() throws IOException {
+        // Each line is "INFO - event NNNN" plus a line separator: under 30 bytes
+        appender.enableWriteBehind(file.toString(), 1024, 2, false);
+        for (int i = 1000; i < 1400; i++) {
+            log("event " + i);
+        }
+        appender.disableWriteBehind();
+
+        assertTrue(Files.size(file) <= 1024);
+        assertTrue(Files.size(tempDir.resolve("persist.log.1")) <= 1024);
+        assertTrue(Files.exists(tempDir.resolve("persist.log.2")));
+        assertFalse(Files.exists(tempDir.resolve("persist.log.3")));
+        List<String> lines = Files.readAllLines(file);
+        assertEquals("INFO - event 1399", lines.get(lines.size() - 1));
+    }
+
+    @Test
+    void testLayoutFailureIsReportedAndCounted() throws IOException {
+        List<String> errors = new CopyOnWriteArrayList<>();
+        appender.setErrorHandler(new OnlyOnceErrorHandler() {
+            @Override
+            public void error(String message, Exception e, int errorCode) {
+                errors.add(message);
+            }
+        });
+        appender.setLayout(new SimpleLayout() {
+            @Override
+            public String format(LoggingEvent event) {
+                throw new IllegalStateException("layout failure");
+            }
+        });
+        appender.setMaxSize(10);
+        appender.enableWriteBehind(file.toString(), 0, 0, false);
+        int count = 3 * WriteBehind.MAX_CARRIED;
+        for (int i = 0; i < count; i++) {
+            log("event " + i);
+        }
+        long lostBeforeStop = appender.getPersistenceLostCount();
+        appender.disableWriteBehind();
+
+        assertTrue(lostBeforeStop > 0, "The writer must survive the failures and keep draining");
+        assertFalse(errors.isEmpty());
+        assertTrue(errors.get(0).startsWith("Failed to format events"), errors.get(0));
+        assertTrue(!Files.exists(file) || Files.size(file) == 0);
+    }
+}